@@ -0,0 +1,39 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.ServicoDeAgendamentoDeMeetupsApplication;
+import com.bootcamp.microservicemeetup.load.SeedData;
+import com.bootcamp.microservicemeetup.service.search.SearchIndexLoader;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Starts the application on its in-memory H2 for the benchmarks and seeds it with
+ * {@link SeedData}, so a 100k-row trial is ready in about a second instead of going
+ * through the services.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    // argumentos de linha de comando: precedem o application.properties
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ServicoDeAgendamentoDeMeetupsApplication.class)
+                .run("--server.port=0",
+                        "--management.server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=warn",
+                        "--logging.level.org.hibernate.SQL=warn",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--spring.h2.console.enabled=false",
+                        "--reactive.read.enabled=false");
+    }
+
+    /**
+     * Seeds the database with {@link SeedData}, the same data the load test runs on.
+     */
+    static void seed(ConfigurableApplicationContext context, int meetups, int registrations) {
+        SeedData.seed(context.getBean(JdbcTemplate.class), context.getBean(SearchIndexLoader.class), meetups, registrations);
+    }
+}
@@ -0,0 +1,91 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.DateMapper;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapper;
+import com.bootcamp.microservicemeetup.controller.mapper.RegistrationMapper;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import org.modelmapper.Converter;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO conversion: the ModelMapper the controllers used to call against the
+ * hand-written mappers that replaced it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    ModelMapper modelMapper;
+
+    Meetup meetup;
+
+    Registration registration;
+
+    @Setup
+    public void setUp() {
+        // mesmo formato de data dos mappers, para os dois lados produzirem o mesmo DTO
+        Converter<LocalDate, String> date = context -> DateMapper.toString(context.getSource());
+        modelMapper = new ModelMapper();
+        modelMapper.addConverter(date, LocalDate.class, String.class);
+
+        meetup = Meetup.builder()
+                .id(1)
+                .event("Bootcamp Java")
+                .description("Spring Boot e JPA")
+                .organizer("Womakerscode")
+                .meetupDate(LocalDate.of(2022, 6, 10))
+                .address("Rua A, 100")
+                .capacity(100)
+                .version(3L)
+                .build();
+        registration = Registration.builder()
+                .id(10)
+                .personName("Ana")
+                .email("ana@mail.com")
+                .dateOfRegistration(LocalDate.of(2022, 5, 1))
+                .registered(true)
+                .meetup(meetup)
+                .version(1L)
+                .build();
+    }
+
+    @Benchmark
+    public MeetupDTO meetupModelMapper() {
+        return modelMapper.map(meetup, MeetupDTO.class);
+    }
+
+    @Benchmark
+    public MeetupDTO meetupDirect() {
+        return MeetupMapper.toDTO(meetup);
+    }
+
+    @Benchmark
+    public RegistrationDTO registrationModelMapper() {
+        return modelMapper.map(registration, RegistrationDTO.class);
+    }
+
+    @Benchmark
+    public RegistrationDTO registrationDirect() {
+        return RegistrationMapper.toDTO(registration);
+    }
+}
@@ -0,0 +1,84 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.service.MeetupDeletionService;
+import com.bootcamp.microservicemeetup.service.counter.MeetupCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall time of {@code DELETE /api/meetup/{id}} for a meetup with 10k and 100k
+ * registrations. Every invocation deletes a meetup created right before it (outside
+ * the measurement), next to the meetups of the regular seed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MeetupDeleteBenchmark {
+
+    @Param({"10000", "100000"})
+    int registrations;
+
+    ConfigurableApplicationContext context;
+
+    JdbcTemplate jdbc;
+
+    MeetupDeletionService meetupDeletionService;
+
+    // fora das faixas de id do seed e das sequences
+    int meetupId = 1_000_000;
+
+    int nextRegistrationId = 10_000_000;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, 100, 10_000);
+
+        jdbc = context.getBean(JdbcTemplate.class);
+        meetupDeletionService = context.getBean(MeetupDeletionService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void createMeetup() {
+        meetupId++;
+        jdbc.update("INSERT INTO meetup (id, event, description, organizer, meetup_date, address, capacity, version, last_modified) "
+                + "VALUES (?, 'Delete me', 'Big meetup', 'Organizer', DATE '2022-06-01', 'Street', NULL, 0, CURRENT_TIMESTAMP)",
+                meetupId);
+        jdbc.update("INSERT INTO meetup_counter (meetup_id, slot, registered_count, confirmed_count) "
+                + "SELECT ?, x, CASE WHEN x = 0 THEN ? ELSE 0 END, 0 FROM SYSTEM_RANGE(0, ?)",
+                meetupId, registrations, MeetupCounters.SLOTS - 1);
+        jdbc.update("INSERT INTO registration (registration_id, person_name, email, date_of_registration, registered, "
+                + "id_meetup, waitlist_position, version, last_modified) "
+                + "SELECT ? + x, 'Person ' || x, 'person' || x || '@mail.com', DATE '2022-05-01', FALSE, ?, NULL, 0, CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(1, ?)", nextRegistrationId, meetupId, registrations);
+        nextRegistrationId += registrations;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean deleteWithRegistrations() {
+        return meetupDeletionService.deleteWithRegistrations(meetupId);
+    }
+}
@@ -0,0 +1,82 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.service.RegistrationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same deep page of registrations (90% into the table, ordered by id) read with
+ * OFFSET ({@code /find/slice}) and by cursor ({@code /find/keyset}). Neither runs a
+ * count query, so the difference is the rows the database skips to reach the page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// 1M inscricoes no H2 em memoria nao cabem no heap padrao
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PagingBenchmark {
+
+    static final int MEETUPS = 1000;
+
+    static final int PAGE_SIZE = 20;
+
+    @Param({"100000", "1000000"})
+    int registrations;
+
+    ConfigurableApplicationContext context;
+
+    RegistrationService registrationService;
+
+    // sem nenhum campo preenchido: todas as inscricoes, sem o indice de trigramas
+    Registration filter;
+
+    int page;
+
+    Integer afterId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, MEETUPS, registrations);
+
+        registrationService = context.getBean(RegistrationService.class);
+        filter = new Registration();
+        page = registrations / PAGE_SIZE * 9 / 10;
+        // o SeedData grava ids 1..n, entao a pagina anterior termina no id page * PAGE_SIZE
+        afterId = page * PAGE_SIZE;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Slice<Registration> deepPageByOffset() {
+        return registrationService.findSlice(filter, PageRequest.of(page, PAGE_SIZE, Sort.by("id")));
+    }
+
+    @Benchmark
+    public Slice<Registration> deepPageByCursor() {
+        return registrationService.findAfter(filter, afterId, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,94 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapper;
+import com.bootcamp.microservicemeetup.controller.mapper.RegistrationMapper;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reads served from DTO constructor projections against loading the entities and
+ * converting them with the mappers, for one meetup by id and for every registration.
+ * Run it with {@code -PjmhProfilers=gc} to see the allocation per operation next to
+ * the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    static final int MEETUPS = 1000;
+
+    static final int MEETUP_ID = 42;
+
+    @Param({"10000", "100000"})
+    int registrations;
+
+    ConfigurableApplicationContext context;
+
+    MeetupRepository meetupRepository;
+
+    RegistrationRepository registrationRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, MEETUPS, registrations);
+
+        meetupRepository = context.getBean(MeetupRepository.class);
+        registrationRepository = context.getBean(RegistrationRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<MeetupDTO> meetupByIdEntity() {
+        return meetupRepository.findById(MEETUP_ID).map(MeetupMapper::toDTO);
+    }
+
+    @Benchmark
+    public Optional<MeetupDTO> meetupByIdProjection() {
+        return meetupRepository.findDTOById(MEETUP_ID);
+    }
+
+    // findAll ja traz o meetup no mesmo select (EntityGraph), sem N+1 no mapper
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<RegistrationDTO> allRegistrationsEntity() {
+        return registrationRepository.findAll()
+                .stream()
+                .map(RegistrationMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<RegistrationDTO> allRegistrationsProjection() {
+        return registrationRepository.findAllDTO();
+    }
+}
@@ -0,0 +1,85 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.service.RegistrationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same selective search on an indexed field (registration email) with and without
+ * the trigram index, as the registration table grows to a million rows. The indexed
+ * path is {@code RegistrationService.find}; the scan is the {@code like '%x%'} query the
+ * service falls back to when the index can't restrict the search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// 1M inscricoes no H2 em memoria mais o indice de trigramas nao cabem no heap padrao
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchBenchmark {
+
+    static final int MEETUPS = 1000;
+
+    @Param({"10000", "100000", "1000000"})
+    int registrations;
+
+    ConfigurableApplicationContext context;
+
+    RegistrationService registrationService;
+
+    RegistrationRepository registrationRepository;
+
+    Registration filter;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, MEETUPS, registrations);
+
+        registrationService = context.getBean(RegistrationService.class);
+        registrationRepository = context.getBean(RegistrationRepository.class);
+        // uma unica inscricao em qualquer tamanho da tabela
+        filter = Registration.builder().email("person4242@").build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Registration> findIndexed() {
+        return registrationService.find(filter, PageRequest.of(0, 20));
+    }
+
+    // o mesmo Example do servico, sem passar pelo indice
+    @Benchmark
+    public Page<Registration> findScan() {
+        return registrationRepository.findAll(Example.of(filter,
+                ExampleMatcher
+                        .matching()
+                        .withIgnoreCase()
+                        .withIgnoreNullValues()
+                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING)), PageRequest.of(0, 20));
+    }
+}
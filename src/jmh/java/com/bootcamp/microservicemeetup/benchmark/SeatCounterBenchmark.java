@@ -0,0 +1,77 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.service.seat.SeatCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservations per second on a single popular meetup as the number of threads grows.
+ * Every operation takes a seat and gives it back, so the counter never reaches the
+ * capacity and all threads keep racing on the same compare-and-set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeatCounterBenchmark {
+
+    static final int MEETUP_ID = 11;
+
+    static final int CAPACITY = 10_000;
+
+    SeatCounter counter;
+
+    @Setup
+    public void setUp() {
+        // o contador so consulta o repositorio no primeiro acesso ao meetup
+        RegistrationRepository repository = (RegistrationRepository) Proxy.newProxyInstance(
+                RegistrationRepository.class.getClassLoader(), new Class<?>[]{RegistrationRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("countByMeetupId")) {
+                        return 0L;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        counter = new SeatCounter(repository);
+        counter.taken(MEETUP_ID);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean reserve1Thread() {
+        return reserveAndRelease();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean reserve8Threads() {
+        return reserveAndRelease();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public boolean reserve32Threads() {
+        return reserveAndRelease();
+    }
+
+    private boolean reserveAndRelease() {
+        boolean reserved = counter.tryReserve(MEETUP_ID, CAPACITY);
+        counter.release(MEETUP_ID);
+        return reserved;
+    }
+}
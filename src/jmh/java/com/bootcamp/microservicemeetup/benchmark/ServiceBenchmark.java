@@ -0,0 +1,116 @@
+package com.bootcamp.microservicemeetup.benchmark;
+
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.exception.BusinessException;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.service.MeetupService;
+import com.bootcamp.microservicemeetup.service.RegistrationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service calls against the seeded H2: the {@code ExampleMatcher} search with and
+ * without help from the trigram index, registration insert (new and duplicated) and
+ * {@code getAll} over the whole registration table.
+ * <p>
+ * Each benchmark runs in its own fork, so the rows inserted by the save benchmarks
+ * do not reach the others.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    static final int MEETUPS = 1000;
+
+    @Param({"10000", "100000"})
+    int registrations;
+
+    ConfigurableApplicationContext context;
+
+    MeetupService meetupService;
+
+    RegistrationService registrationService;
+
+    Meetup meetup;
+
+    int created;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, MEETUPS, registrations);
+
+        meetupService = context.getBean(MeetupService.class);
+        registrationService = context.getBean(RegistrationService.class);
+        // person1@mail.com ja esta inscrita no meetup 2
+        meetup = meetupService.getMeetupById(2).orElseThrow(IllegalStateException::new);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Meetup> findIndexed() {
+        return meetupService.find(Meetup.builder().event("event 42").build(), PageRequest.of(0, 20));
+    }
+
+    // termo de 2 letras: o indice nao restringe e o filtro vira like '%x%' na tabela toda
+    @Benchmark
+    public Page<Meetup> findScan() {
+        return meetupService.find(Meetup.builder().event("nt").build(), PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public Registration saveNew() {
+        return registrationService.save(registration("bench" + (++created) + "@mail.com"));
+    }
+
+    @Benchmark
+    public Object saveDuplicate() {
+        try {
+            return registrationService.save(registration("person1@mail.com"));
+        } catch (BusinessException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<RegistrationDTO> getAll() {
+        return registrationService.getAll();
+    }
+
+    private Registration registration(String email) {
+        return Registration.builder()
+                .personName("Bench")
+                .email(email)
+                .dateOfRegistration(LocalDate.of(2022, 5, 1))
+                .registered(false)
+                .meetup(meetup)
+                .build();
+    }
+}
@@ -1,19 +1,16 @@
 package com.bootcamp.microservicemeetup;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// o R2DBC e usado so na leitura reativa (ReactiveReadConfig); a auto-configuracao
+// criaria um ReactiveTransactionManager que tomaria o lugar do JpaTransactionManager
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class ServicoDeAgendamentoDeMeetupsApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(ServicoDeAgendamentoDeMeetupsApplication.class, args);
 	}
-
-	@Bean
-	public ModelMapper modelMapper() {
-		return new ModelMapper();
-	}
 }
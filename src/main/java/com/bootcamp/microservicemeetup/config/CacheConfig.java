@@ -0,0 +1,17 @@
+package com.bootcamp.microservicemeetup.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches are Caffeine instances created by Spring Boot from {@code spring.cache.*};
+ * see application.properties for size, TTL and stats.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String MEETUPS = "meetups";
+
+    public static final String MEETUP_DTOS = "meetupDTOs";
+}
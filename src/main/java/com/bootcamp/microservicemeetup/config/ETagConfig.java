@@ -0,0 +1,27 @@
+package com.bootcamp.microservicemeetup.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * ETags for the search pages. A page mixes many rows, so instead of a version the tag is
+ * a hash of the response body: an unchanged page still runs the query, but answers
+ * {@code If-None-Match} with 304 and no body. Single resources use version ETags in
+ * the controllers.
+ */
+@Configuration
+public class ETagConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> findPagesETagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        // so as paginas de busca: os exports NDJSON nao podem ser bufferizados
+        registration.addUrlPatterns(
+                "/api/meetup/find", "/api/meetup/find/*",
+                "/api/registration/find", "/api/registration/find/*");
+        registration.setName("findPagesETagFilter");
+        return registration;
+    }
+}
@@ -0,0 +1,48 @@
+package com.bootcamp.microservicemeetup.config;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Metrics are exported by the actuator at {@code /actuator/prometheus}. Besides what
+ * Spring Boot binds on its own (Hikari pool, JVM memory/GC, Hibernate statistics,
+ * caches), {@code http.server.requests} is tagged with the controller method that
+ * served the request, so the latency percentiles come out per endpoint.
+ */
+@Configuration
+public class MetricsConfig {
+
+    static final String HANDLER_TAG = "handler";
+
+    @Bean
+    public WebMvcTagsContributor handlerMethodTagsContributor() {
+        return new WebMvcTagsContributor() {
+            @Override
+            public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Throwable exception) {
+                return Tags.of(HANDLER_TAG, handlerName(handler));
+            }
+
+            @Override
+            public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+                return Tags.of(HANDLER_TAG, handlerName(handler));
+            }
+        };
+    }
+
+    // ex.: MeetupController.getByMeetupId; "none" para 404 e recursos estaticos
+    static String handlerName(Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return "none";
+        }
+        HandlerMethod method = (HandlerMethod) handler;
+        return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+    }
+}
@@ -0,0 +1,65 @@
+package com.bootcamp.microservicemeetup.config;
+
+import com.bootcamp.microservicemeetup.controller.resource.ReactiveReadHandler;
+import com.bootcamp.microservicemeetup.repository.ReactiveReadRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+/**
+ * Reactive read path: a Netty server on {@code reactive.read.port} whose handlers query
+ * the same H2 database as JPA through a small R2DBC pool, so lookups and searches don't
+ * hold one thread per request. Writes stay on the MVC controllers.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reactive.read.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveReadConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveReadConnectionPool(@Value("${reactive.read.r2dbc-url}") String url,
+                                                     @Value("${spring.datasource.username}") String username,
+                                                     @Value("${spring.datasource.password}") String password,
+                                                     @Value("${reactive.read.pool-size:10}") int poolSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url)
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(poolSize)
+                .build());
+    }
+
+    @Bean
+    public ReactiveReadRepository reactiveReadRepository(ConnectionPool reactiveReadConnectionPool) {
+        return new ReactiveReadRepository(DatabaseClient.create(reactiveReadConnectionPool));
+    }
+
+    @Bean
+    public ReactiveReadServer reactiveReadServer(ReactiveReadRepository reactiveReadRepository,
+                                                 ObjectMapper objectMapper,
+                                                 @Value("${reactive.read.port:8081}") int port) {
+        // mesmo ObjectMapper do MVC: o JSON sai igual nos dois servidores
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+
+        ReactiveReadHandler handler = new ReactiveReadHandler(reactiveReadRepository);
+        return new ReactiveReadServer(RouterFunctions.toHttpHandler(handler.routes(), strategies), port);
+    }
+}
@@ -0,0 +1,53 @@
+package com.bootcamp.microservicemeetup.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+
+/**
+ * Netty server for the reactive read endpoints, on its own port next to the servlet
+ * container. Started and stopped with the application context.
+ */
+@Log4j2
+public class ReactiveReadServer implements SmartLifecycle {
+
+    private final HttpHandler httpHandler;
+    private final int port;
+
+    private volatile WebServer webServer;
+
+    public ReactiveReadServer(HttpHandler httpHandler, int port) {
+        this.httpHandler = httpHandler;
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        webServer = new NettyReactiveWebServerFactory(port).getWebServer(httpHandler);
+        webServer.start();
+        log.info("Reactive read API started on port {}", webServer.getPort());
+    }
+
+    @Override
+    public void stop() {
+        if (webServer != null) {
+            webServer.stop();
+            webServer = null;
+        }
+    }
+
+    /**
+     * Port actually bound, which differs from the configured one when that is {@code 0}.
+     */
+    public int getPort() {
+        WebServer server = webServer;
+        return server == null ? port : server.getPort();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return webServer != null;
+    }
+}
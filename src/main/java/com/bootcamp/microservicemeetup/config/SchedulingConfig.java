@@ -0,0 +1,12 @@
+package com.bootcamp.microservicemeetup.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs; see MeetupCounterRepairJob and {@code meetup.counters.repair.*}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
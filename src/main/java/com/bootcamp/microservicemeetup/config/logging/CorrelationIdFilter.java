@@ -0,0 +1,67 @@
+package com.bootcamp.microservicemeetup.config.logging;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Puts a correlation id in the log4j {@link ThreadContext} for the whole request: the
+ * {@code X-Correlation-Id} sent by the client, or a new one, echoed in the response.
+ * One request in {@code logging.sql.sample-rate} is also marked to have its SQL logged
+ * by {@link SampledSqlInspector}; 0 turns the sampling off.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Correlation-Id";
+
+    public static final String CORRELATION_ID = "correlationId";
+
+    static final String SQL_TRACE = "sqlTrace";
+
+    // o id vai para o log: nada de quebras de linha ou textos longos vindos do cliente
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final int sampleRate;
+
+    private final AtomicLong requests = new AtomicLong();
+
+    public CorrelationIdFilter(@Value("${logging.sql.sample-rate:0}") int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String id = request.getHeader(HEADER);
+        if (id == null || !VALID_ID.matcher(id).matches()) {
+            id = UUID.randomUUID().toString();
+        }
+
+        ThreadContext.put(CORRELATION_ID, id);
+        if (sampleRate > 0 && requests.getAndIncrement() % sampleRate == 0) {
+            ThreadContext.put(SQL_TRACE, "true");
+        }
+        response.setHeader(HEADER, id);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ThreadContext.remove(CORRELATION_ID);
+            ThreadContext.remove(SQL_TRACE);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.bootcamp.microservicemeetup.config.logging;
+
+import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.ThreadContext;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Logs the SQL of the requests sampled by {@link CorrelationIdFilter} (logger
+ * {@code sql.sampled}); the correlation id comes from the log pattern. Statements of
+ * other requests pass untouched. Registered through
+ * {@code hibernate.session_factory.statement_inspector}.
+ */
+@Log4j2(topic = "sql.sampled")
+public class SampledSqlInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        if (ThreadContext.containsKey(CorrelationIdFilter.SQL_TRACE)) {
+            log.info(sql);
+        }
+        return sql;
+    }
+}
@@ -2,6 +2,8 @@ package com.bootcamp.microservicemeetup.controller;
 
 import com.bootcamp.microservicemeetup.controller.exceptions.ApiErrors;
 import com.bootcamp.microservicemeetup.exception.BusinessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -11,6 +13,9 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestControllerAdvice
 public class ApplicationControllerAdvice {
 
@@ -34,4 +39,20 @@ public class ApplicationControllerAdvice {
     public ResponseEntity handleResponseStatusException(ResponseStatusException ex) {
         return new ResponseEntity(new ApiErrors(ex), ex.getStatus());
     }
+
+    // o @Version mudou entre a leitura e a escrita: o cliente deve reler e reaplicar a alteracao
+    @ExceptionHandler({OptimisticLockingFailureException.class, OptimisticLockException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiErrors handleOptimisticLockException(RuntimeException e) {
+
+        return new ApiErrors("resource was modified concurrently, reload it and retry");
+    }
+
+    // pool de banco saturado (DbBulkhead): o cliente deve tentar de novo em instantes
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiErrors> handleRejectedExecutionException(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiErrors(ex.getMessage()));
+    }
 }
@@ -0,0 +1,42 @@
+package com.bootcamp.microservicemeetup.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkImportResultDTO {
+
+    private long received;
+
+    private long created;
+
+    // campos obrigatorios ausentes ou meetup inexistente
+    private long invalid;
+
+    // repetidas dentro do proprio lote
+    private long duplicated;
+
+    // ja inscritas no meetup antes da importacao
+    private long alreadyRegistered;
+
+    // recusadas por falta de vaga no meetup
+    private long full;
+
+    // de lotes que o banco recusou mesmo depois da nova tentativa; nada desses lotes foi gravado
+    private long rejected;
+
+    // leitura interrompida por uma linha mal formada: posicao dela (a partir de 1) e o motivo.
+    // As linhas anteriores foram processadas e estao nos contadores; as seguintes nao foram lidas
+    private Long failedAtRow;
+
+    private String parseError;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+}
@@ -1,14 +1,18 @@
 package com.bootcamp.microservicemeetup.controller.dto;
 
+import com.bootcamp.microservicemeetup.controller.mapper.DateMapper;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.validation.constraints.NotEmpty;
+import java.time.Instant;
+import java.time.LocalDate;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class MeetupDTO {
@@ -22,7 +26,40 @@ public class MeetupDTO {
     @NotEmpty
     private String organizer;
 
+    // dd/MM/yyyy
     @NotEmpty
     private String meetupDate;
     private String address;
+
+    // vagas; null = sem limite
+    private Integer capacity;
+
+    // somente leitura: ignorados no POST/PUT; lidos a parte (MeetupCounters); entram no ETag
+    private Long registeredCount;
+    private Long confirmedCount;
+
+    // versao lida junto com as colunas: o ETag do GET sai daqui, nunca de uma leitura separada.
+    // Fora do JSON, que ja leva o ETag no header
+    @JsonIgnore
+    private Long version;
+
+    @JsonIgnore
+    private Instant lastModified;
+
+    // usado pelas consultas de projecao (select new ...), que leem a data tipada
+    public MeetupDTO(Integer id, String event, String description, String organizer,
+                     LocalDate meetupDate, String address, Integer capacity,
+                     Long version, Instant lastModified) {
+        this(id, event, description, organizer, DateMapper.toString(meetupDate), address, capacity,
+                null, null, version, lastModified);
+    }
+
+    public MeetupDTO(Integer id, String event, String description, String organizer,
+                     LocalDate meetupDate, String address, Integer capacity) {
+        this(id, event, description, organizer, meetupDate, address, capacity, null, null);
+    }
+
+    public MeetupDTO copy() {
+        return toBuilder().build();
+    }
 }
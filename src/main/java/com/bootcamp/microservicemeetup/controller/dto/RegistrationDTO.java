@@ -1,11 +1,13 @@
 package com.bootcamp.microservicemeetup.controller.dto;
 
+import com.bootcamp.microservicemeetup.controller.mapper.DateMapper;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.validation.constraints.NotEmpty;
+import java.time.LocalDate;
 
 @Data
 @AllArgsConstructor
@@ -21,10 +23,23 @@ public class RegistrationDTO {
     @NotEmpty
     private String email;
 
+    // dd/MM/yyyy
     @NotEmpty
     private String dateOfRegistration;
 
     private Boolean registered;
 
     private MeetupDTO meetup;
+
+    // posicao na fila de espera; null = inscricao com vaga
+    private Long waitlistPosition;
+
+    // usado pelas consultas de projecao (select new ...), que nao montam objetos aninhados
+    public RegistrationDTO(Integer id, String personName, String email, LocalDate dateOfRegistration, Boolean registered,
+                           Integer meetupId, String event, String description, String organizer,
+                           LocalDate meetupDate, String address, Long waitlistPosition) {
+        this(id, personName, email, DateMapper.toString(dateOfRegistration), registered,
+                meetupId == null ? null : new MeetupDTO(meetupId, event, description, organizer, meetupDate, address, null),
+                waitlistPosition);
+    }
 }
@@ -0,0 +1,29 @@
+package com.bootcamp.microservicemeetup.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class RegistrationTicketDTO {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    private String ticket;
+
+    private String status;
+
+    // preenchidos quando a inscricao foi gravada (DONE)
+    private Integer registrationId;
+
+    private Long waitlistPosition;
+
+    // motivo da falha (FAILED)
+    private String message;
+}
@@ -25,6 +25,10 @@ public class ApiErrors {
         this.errors = Arrays.asList(e.getReason());
     }
 
+    public ApiErrors(String message) {
+        this.errors = Arrays.asList(message);
+    }
+
     public List<String> getErrors() {
         return errors;
     }
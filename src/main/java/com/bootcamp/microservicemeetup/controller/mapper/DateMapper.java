@@ -0,0 +1,39 @@
+package com.bootcamp.microservicemeetup.controller.mapper;
+
+import com.bootcamp.microservicemeetup.exception.BusinessException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+
+/**
+ * Dates are {@link LocalDate} in the entities and keep the "dd/MM/yyyy" text format
+ * the API always used in the DTOs.
+ */
+public final class DateMapper {
+
+    public static final String PATTERN = "dd/MM/uuuu";
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN)
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    private DateMapper() {
+    }
+
+    public static String toString(LocalDate date) {
+        return date == null ? null : FORMATTER.format(date);
+    }
+
+    public static LocalDate toLocalDate(String date) {
+        if (date == null || date.isBlank()) {
+            return null;
+        }
+
+        try {
+            return LocalDate.parse(date.trim(), FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("Invalid date '" + date + "', expected dd/MM/yyyy");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bootcamp.microservicemeetup.controller.mapper;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+
+/**
+ * Hand-written conversions between {@link Meetup} and its DTOs. Plain getter/setter
+ * copies, so nothing is resolved by reflection on the request path.
+ */
+public final class MeetupMapper {
+
+    private MeetupMapper() {
+    }
+
+    public static MeetupDTO toDTO(Meetup meetup) {
+        if (meetup == null) {
+            return null;
+        }
+
+        return MeetupDTO.builder()
+                .id(meetup.getId())
+                .event(meetup.getEvent())
+                .description(meetup.getDescription())
+                .organizer(meetup.getOrganizer())
+                .meetupDate(DateMapper.toString(meetup.getMeetupDate()))
+                .address(meetup.getAddress())
+                .capacity(meetup.getCapacity())
+                .version(meetup.getVersion())
+                .lastModified(meetup.getLastModified())
+                .build();
+    }
+
+    public static Meetup toEntity(MeetupDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+
+        return Meetup.builder()
+                .id(dto.getId())
+                .event(dto.getEvent())
+                .description(dto.getDescription())
+                .organizer(dto.getOrganizer())
+                .meetupDate(DateMapper.toLocalDate(dto.getMeetupDate()))
+                .address(dto.getAddress())
+                .capacity(dto.getCapacity())
+                .build();
+    }
+
+    public static Meetup toEntity(MeetupFilterDTO dto) {
+        if (dto == null) {
+            return new Meetup();
+        }
+
+        return Meetup.builder()
+                .event(dto.getEvent())
+                .organizer(dto.getOrganizer())
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.bootcamp.microservicemeetup.controller.mapper;
+
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+
+/**
+ * Hand-written conversions between {@link Registration} and {@link RegistrationDTO}.
+ */
+public final class RegistrationMapper {
+
+    private RegistrationMapper() {
+    }
+
+    public static RegistrationDTO toDTO(Registration registration) {
+        if (registration == null) {
+            return null;
+        }
+
+        return RegistrationDTO.builder()
+                .id(registration.getId())
+                .personName(registration.getPersonName())
+                .email(registration.getEmail())
+                .dateOfRegistration(DateMapper.toString(registration.getDateOfRegistration()))
+                .registered(registration.getRegistered())
+                .meetup(MeetupMapper.toDTO(registration.getMeetup()))
+                .waitlistPosition(registration.getWaitlistPosition())
+                .build();
+    }
+
+    public static Registration toEntity(RegistrationDTO dto) {
+        if (dto == null) {
+            return new Registration();
+        }
+
+        return Registration.builder()
+                .id(dto.getId())
+                .personName(dto.getPersonName())
+                .email(dto.getEmail())
+                .dateOfRegistration(DateMapper.toLocalDate(dto.getDateOfRegistration()))
+                .registered(dto.getRegistered())
+                .meetup(MeetupMapper.toEntity(dto.getMeetup()))
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.bootcamp.microservicemeetup.controller.resource;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encodes the last seen id of a keyset page as an opaque token, so clients
+ * don't depend on how the seek is done. Keyset pages are always ordered by id
+ * ascending, so a {@code sort} asking for anything else is refused.
+ */
+final class Cursors {
+
+    static final int MAX_PAGE_SIZE = 2000;
+
+    private static final String ID = "id";
+
+    private static final String PREFIX = ID + ":";
+
+    private Cursors() {
+    }
+
+    static String encode(Integer lastId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Integer decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new IllegalArgumentException(value);
+            }
+            return Integer.valueOf(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor");
+        }
+    }
+
+    static void requireIdOrder(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!ID.equals(order.getProperty()) || order.isDescending()) {
+                throw unsupportedSort();
+            }
+        }
+    }
+
+    // parametros crus do handler reativo: "id" ou "id,asc"
+    static void requireIdOrder(List<String> sort) {
+        for (String value : sort) {
+            if (!ID.equals(value) && !(ID + ",asc").equalsIgnoreCase(value)) {
+                throw unsupportedSort();
+            }
+        }
+    }
+
+    private static ResponseStatusException unsupportedSort() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "cursor pages are ordered by id, sort is not supported");
+    }
+
+    static int pageSize(int size) {
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be greater than zero");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,119 @@
+package com.bootcamp.microservicemeetup.controller.resource;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.model.VersionStamp;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Strong ETags built from the entity version, so a conditional GET is answered without
+ * serializing the resource, and a PUT with
+ * {@code If-Match} is refused before writing when the client edited an old version.
+ * <p>
+ * A meetup is served with its registration counters, which change without changing the
+ * meetup row, so its tag is {@code "<version>.<registered>.<confirmed>"} and it has no
+ * Last-Modified: no timestamp covers the counters.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(VersionStamp stamp) {
+        return stamp.getTag() == null ? null : "\"" + stamp.getTag() + "\"";
+    }
+
+    // o DTO ja tem que vir com os contadores preenchidos
+    static VersionStamp stampOf(MeetupDTO meetup) {
+        if (meetup.getVersion() == null) {
+            return new VersionStamp((String) null, null);
+        }
+        return new VersionStamp(meetup.getVersion() + "." + count(meetup.getRegisteredCount())
+                + "." + count(meetup.getConfirmedCount()), null);
+    }
+
+    static VersionStamp stampOf(Registration registration) {
+        Meetup meetup = registration.getMeetup();
+        return new VersionStamp(registration.getVersion(), meetup == null ? null : meetup.getVersion(),
+                registration.getLastModified(), meetup == null ? null : meetup.getLastModified());
+    }
+
+    // If-None-Match usa comparacao fraca: W/"3" tambem casa com "3"
+    static boolean noneMatchHits(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-Match do meetup compara so a versao da linha: os contadores nao sao editaveis,
+    // entao uma inscricao entre o GET e o PUT nao invalida a edicao
+    static void checkIfMatch(String ifMatch, Meetup current) {
+        if (ifMatch == null) {
+            return;
+        }
+
+        String version = String.valueOf(current.getVersion());
+        for (String candidate : ifMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return;
+            }
+            if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+                String tag = value.substring(1, value.length() - 1);
+                int dot = tag.indexOf('.');
+                if ((dot < 0 ? tag : tag.substring(0, dot)).equals(version)) {
+                    return;
+                }
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "resource was modified, reload it and retry");
+    }
+
+    // If-Match usa comparacao forte: um ETag fraco nunca autoriza a escrita
+    static void checkIfMatch(String ifMatch, VersionStamp current) {
+        if (ifMatch == null) {
+            return;
+        }
+
+        String etag = of(current);
+        for (String candidate : ifMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag)) {
+                return;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "resource was modified, reload it and retry");
+    }
+
+    static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder builder, VersionStamp stamp) {
+        if (stamp.getTag() != null) {
+            builder.eTag(of(stamp));
+        }
+        if (stamp.getLastModified() != null) {
+            builder.lastModified(stamp.getLastModified());
+        }
+        return builder;
+    }
+
+    static <T> ResponseEntity<T> notModified(VersionStamp stamp) {
+        return withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), stamp).build();
+    }
+
+    private static long count(Long value) {
+        return value == null ? 0 : value;
+    }
+}
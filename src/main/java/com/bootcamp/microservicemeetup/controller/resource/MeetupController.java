@@ -1,21 +1,46 @@
 package com.bootcamp.microservicemeetup.controller.resource;
 
+import com.bootcamp.microservicemeetup.controller.dto.CursorPageDTO;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
 import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.DateMapper;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapper;
+import com.bootcamp.microservicemeetup.model.VersionStamp;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.service.MeetupDeletionService;
 import com.bootcamp.microservicemeetup.service.MeetupService;
+import com.bootcamp.microservicemeetup.service.RegistrationService;
+import com.bootcamp.microservicemeetup.service.bulkhead.DbBulkhead;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/meetup")
@@ -24,17 +49,27 @@ public class MeetupController {
 
     private MeetupService meetupService;
 
-    private ModelMapper modelMapper;
+    private MeetupDeletionService meetupDeletionService;
+
+    private RegistrationService registrationService;
+
+    private DbBulkhead dbBulkhead;
 
-    public MeetupController(MeetupService meetupService, ModelMapper modelMapper) {
+    private ObjectMapper objectMapper;
+
+    public MeetupController(MeetupService meetupService, MeetupDeletionService meetupDeletionService,
+                            RegistrationService registrationService, DbBulkhead dbBulkhead, ObjectMapper objectMapper) {
         this.meetupService = meetupService;
-        this.modelMapper = modelMapper;
+        this.meetupDeletionService = meetupDeletionService;
+        this.registrationService = registrationService;
+        this.dbBulkhead = dbBulkhead;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     private Integer create(@RequestBody MeetupDTO meetupDTO) {
-        Meetup entity = modelMapper.map(meetupDTO, Meetup.class);
+        Meetup entity = MeetupMapper.toEntity(meetupDTO);
         entity = meetupService.save(entity);
 
 //        modelMapper.map(entity, MeetupDTO.class);
@@ -44,18 +79,57 @@ public class MeetupController {
     @GetMapping("/find")
     public Page<MeetupDTO> find(MeetupFilterDTO dto, Pageable pageRequest) {
 
-        Meetup filter = modelMapper.map(dto, Meetup.class);
-        Page<Meetup> result = meetupService.find(filter, pageRequest);
+        Meetup filter = MeetupMapper.toEntity(dto);
+
+        return meetupService.findDTO(filter, pageRequest);
+
+    }
+
+    @GetMapping("/find/slice")
+    public Slice<MeetupDTO> findSlice(MeetupFilterDTO dto, Pageable pageRequest) {
+
+        Meetup filter = MeetupMapper.toEntity(dto);
+        Slice<MeetupDTO> result = meetupService.findSlice(filter, pageRequest).map(MeetupMapper::toDTO);
+        meetupService.withCounters(result.getContent());
+
+        return result;
+    }
+
+    @GetMapping("/find/keyset")
+    public CursorPageDTO<MeetupDTO> findByCursor(MeetupFilterDTO dto,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "20") int size,
+                                                 Sort sort) {
+
+        Meetup filter = MeetupMapper.toEntity(dto);
+        Cursors.requireIdOrder(sort);
+        Slice<Meetup> result = meetupService.findAfter(filter, Cursors.decode(cursor), Cursors.pageSize(size));
 
         List<MeetupDTO> meetups = result
                 .getContent()
                 .stream()
-                .map(entity -> {
-                    MeetupDTO meetupDTO = modelMapper.map(entity, MeetupDTO.class);
-                    return meetupDTO;
-                }).collect(Collectors.toList());
-        return new PageImpl<>(meetups, pageRequest, result.getTotalElements());
+                .map(MeetupMapper::toDTO)
+                .collect(Collectors.toList());
+        meetupService.withCounters(meetups);
 
+        String next = result.hasNext() ? Cursors.encode(meetups.get(meetups.size() - 1).getId()) : null;
+        return new CursorPageDTO<>(meetups, next);
+    }
+
+    // meetups entre from e to (dd/MM/yyyy, inclusive); por padrao, os proximos 7 dias
+    @GetMapping("/upcoming")
+    public Slice<MeetupDTO> findUpcoming(@RequestParam(required = false) String from,
+                                         @RequestParam(required = false) String to,
+                                         Pageable pageRequest) {
+
+        LocalDate start = from == null ? LocalDate.now() : DateMapper.toLocalDate(from);
+        LocalDate end = to == null ? start.plusDays(7) : DateMapper.toLocalDate(to);
+        if (end.isBefore(start)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'to' must not be before 'from'");
+        }
+
+        // a ordenacao vem da consulta (meetup_date, id), que segue o indice
+        return meetupService.findUpcoming(start, end, PageRequest.of(pageRequest.getPageNumber(), pageRequest.getPageSize()));
     }
 
     @GetMapping
@@ -65,38 +139,116 @@ public class MeetupController {
         return result;
     }
 
+    // exporta em NDJSON, escrevendo cada meetup assim que e lido do banco
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportAll() {
+
+        return outputStream -> meetupService.exportAll(meetupDTO -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(meetupDTO));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     @GetMapping("{meetupId}")
-    @ResponseStatus(HttpStatus.OK)
-    public MeetupDTO getByMeetupId(@PathVariable Integer meetupId) {
+    public CompletableFuture<ResponseEntity<MeetupDTO>> getByMeetupId(
+            @PathVariable Integer meetupId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        // roda no pool de leitura: escritas lentas nao ocupam as threads desta consulta
+        return dbBulkhead.read(() -> {
+            // o ETag sai da versao e dos contadores do proprio DTO: corpo e ETag sao sempre da
+            // mesma leitura, e uma inscricao nova muda o ETag. A soma dos contadores e a unica
+            // consulta antes do 304, e o validador depende dela
+            MeetupDTO meetup = meetupService
+                    .getMeetupDTOById(meetupId)
+                    .orElseThrow( () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "meetup id doesn't exist"));
+            VersionStamp stamp = ETags.stampOf(meetup);
+            if (ETags.noneMatchHits(ifNoneMatch, ETags.of(stamp))) {
+                return ETags.notModified(stamp);
+            }
+
+            return ETags.withValidators(ResponseEntity.ok(), stamp).body(meetup);
+        });
+    }
 
-        return meetupService
-                .getMeetupById(meetupId)
-                .map(meetup -> modelMapper.map(meetup, MeetupDTO.class))
-                .orElseThrow( () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "meetup id doesn't exist"));
+    // lista de inscritos em CSV para o check-in, escrita conforme o cursor avanca; o cabecalho
+    // sai logo (flush) e o gzip usa sync flush para nao segurar o primeiro bloco
+    @GetMapping(value = "{meetupId}/registrations.csv", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportRegistrations(
+            @PathVariable Integer meetupId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        if (meetupService.getMeetupVersion(meetupId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "meetup id doesn't exist");
+        }
+
+        boolean gzip = RegistrationCsv.acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(RegistrationCsv.TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("meetup-" + meetupId + "-registrations.csv")
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(outputStream -> {
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, 8192, true) : outputStream;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(RegistrationCsv.HEADER);
+            writer.flush();
+
+            registrationService.exportByMeetup(meetupId, registrationDTO -> {
+                try {
+                    RegistrationCsv.write(writer, registrationDTO);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            // grava o trailer do gzip; o stream da resposta e fechado pelo container
+            if (gzip) {
+                ((GZIPOutputStream) out).finish();
+            }
+        });
     }
 
+    // apaga as inscricoes e o meetup direto no banco, sem carregar entidades
     @DeleteMapping("{meetupId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteByMeetupId(@PathVariable Integer meetupId) {
 
-        Meetup meetup = meetupService.getMeetupById(meetupId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "meetup id doesn't exist"));
-        meetupService.delete(meetup);
+        if (!meetupDeletionService.deleteWithRegistrations(meetupId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "meetup id doesn't exist");
+        }
     }
 
+    // com If-Match, so grava se o cliente editou a versao atual (senao 412); uma escrita
+    // concorrente entre a leitura e o update vira 409 pelo @Version. O If-Match e as
+    // mudancas sao aplicados pelo service na versao lida do banco, dentro da transacao
     @PutMapping("{meetupId}")
-    @ResponseStatus(HttpStatus.OK)
-    public MeetupDTO update(@PathVariable Integer meetupId, @RequestBody MeetupDTO meetupDTO) {
+    public ResponseEntity<MeetupDTO> update(@PathVariable Integer meetupId, @RequestBody MeetupDTO meetupDTO,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        Meetup updated = meetupService.update(meetupId, meetup -> {
+            ETags.checkIfMatch(ifMatch, meetup);
 
-        return meetupService.getMeetupById(meetupId).map(meetup -> {
             meetup.setEvent(meetupDTO.getEvent());
             meetup.setDescription(meetupDTO.getDescription());
             meetup.setOrganizer(meetupDTO.getOrganizer());
-            meetup.setMeetupDate(meetupDTO.getMeetupDate());
+            meetup.setMeetupDate(DateMapper.toLocalDate(meetupDTO.getMeetupDate()));
             meetup.setAddress(meetupDTO.getAddress());
-            meetup =  meetupService.update(meetup);
-            return modelMapper.map(meetup, MeetupDTO.class);
+            meetup.setCapacity(meetupDTO.getCapacity());
         }).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "meetup id doesn't exist"));
 
+        MeetupDTO body = MeetupMapper.toDTO(updated);
+        meetupService.withCounters(List.of(body));
+        return ETags.withValidators(ResponseEntity.ok(), ETags.stampOf(body)).body(body);
     }
 }
@@ -0,0 +1,106 @@
+package com.bootcamp.microservicemeetup.controller.resource;
+
+import com.bootcamp.microservicemeetup.controller.dto.CursorPageDTO;
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.exceptions.ApiErrors;
+import com.bootcamp.microservicemeetup.repository.ReactiveReadRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Functional read endpoints served by the reactive server (see ReactiveReadConfig):
+ * {@code GET /api/meetup/{meetupId}}, {@code GET /api/meetup/{meetupId}/registrations}
+ * and {@code GET /api/meetup/find}, the last two paged by cursor like {@code /find/keyset}.
+ * Bodies and errors have the same JSON as the MVC controllers.
+ */
+public class ReactiveReadHandler {
+
+    private final ReactiveReadRepository repository;
+
+    public ReactiveReadHandler(ReactiveReadRepository repository) {
+        this.repository = repository;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        // /find antes de /{meetupId}, senao "find" seria lido como id
+        return RouterFunctions.route()
+                .GET("/api/meetup/find", this::findMeetups)
+                .GET("/api/meetup/{meetupId}/registrations", this::getRegistrationsByMeetup)
+                .GET("/api/meetup/{meetupId}", this::getByMeetupId)
+                .onError(ResponseStatusException.class, (e, request) -> ServerResponse
+                        .status(e.getStatus())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new ApiErrors(e)))
+                .build();
+    }
+
+    Mono<ServerResponse> getByMeetupId(ServerRequest request) {
+        return Mono.defer(() -> repository.findMeetupById(meetupId(request)))
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "meetup id doesn't exist")))
+                .flatMap(meetup -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(meetup));
+    }
+
+    Mono<ServerResponse> getRegistrationsByMeetup(ServerRequest request) {
+        return Mono.defer(() -> {
+            Cursors.requireIdOrder(request.queryParams().getOrDefault("sort", List.of()));
+            int size = Cursors.pageSize(intParam(request, "size", 20));
+            Flux<RegistrationDTO> rows = repository.findRegistrationsByMeetupAfter(
+                    meetupId(request), Cursors.decode(request.queryParam("cursor").orElse(null)), size + 1);
+            return page(rows, size, RegistrationDTO::getId);
+        });
+    }
+
+    Mono<ServerResponse> findMeetups(ServerRequest request) {
+        return Mono.defer(() -> {
+            MeetupFilterDTO filter = MeetupFilterDTO.builder()
+                    .event(request.queryParam("event").orElse(null))
+                    .organizer(request.queryParam("organizer").orElse(null))
+                    .build();
+            Cursors.requireIdOrder(request.queryParams().getOrDefault("sort", List.of()));
+            int size = Cursors.pageSize(intParam(request, "size", 20));
+            Flux<MeetupDTO> rows = repository.findMeetupsAfter(
+                    filter, Cursors.decode(request.queryParam("cursor").orElse(null)), size + 1);
+            return page(rows, size, MeetupDTO::getId);
+        });
+    }
+
+    // busca um registro a mais para saber se existe proxima pagina
+    private static <T> Mono<ServerResponse> page(Flux<T> rows, int size, Function<T, Integer> id) {
+        return rows.collectList().flatMap(list -> {
+            boolean hasNext = list.size() > size;
+            List<T> content = hasNext ? list.subList(0, size) : list;
+            String next = hasNext ? Cursors.encode(id.apply(content.get(content.size() - 1))) : null;
+            return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new CursorPageDTO<>(content, next));
+        });
+    }
+
+    private static Integer meetupId(ServerRequest request) {
+        try {
+            return Integer.valueOf(request.pathVariable("meetupId"));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "meetup id must be a number");
+        }
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        try {
+            return request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, name + " must be a number");
+        }
+    }
+}
@@ -1,22 +1,44 @@
 package com.bootcamp.microservicemeetup.controller.resource;
 
+import com.bootcamp.microservicemeetup.controller.dto.BulkImportResultDTO;
+import com.bootcamp.microservicemeetup.controller.dto.CursorPageDTO;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
 import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationTicketDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.DateMapper;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapper;
+import com.bootcamp.microservicemeetup.controller.mapper.RegistrationMapper;
+import com.bootcamp.microservicemeetup.model.VersionStamp;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
 import com.bootcamp.microservicemeetup.service.MeetupService;
+import com.bootcamp.microservicemeetup.service.RegistrationImportService;
 import com.bootcamp.microservicemeetup.service.RegistrationService;
+import com.bootcamp.microservicemeetup.service.bulkhead.DbBulkhead;
+import com.bootcamp.microservicemeetup.service.ingest.RegistrationIngestQueue;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -26,77 +48,166 @@ public class RegistrationController {
 
     private MeetupService meetupService;
     private RegistrationService registrationService;
-    private ModelMapper modelMapper;
+    private RegistrationImportService registrationImportService;
+    private RegistrationIngestQueue registrationIngestQueue;
+    private DbBulkhead dbBulkhead;
+    private ObjectMapper objectMapper;
 
-    public RegistrationController(MeetupService meetupService, RegistrationService registrationService, ModelMapper modelMapper) {
+    public RegistrationController(MeetupService meetupService, RegistrationService registrationService,
+                                  RegistrationImportService registrationImportService,
+                                  RegistrationIngestQueue registrationIngestQueue, DbBulkhead dbBulkhead,
+                                  ObjectMapper objectMapper) {
         this.meetupService = meetupService;
         this.registrationService= registrationService;
-        this.modelMapper = modelMapper;
+        this.registrationImportService = registrationImportService;
+        this.registrationIngestQueue = registrationIngestQueue;
+        this.dbBulkhead = dbBulkhead;
+        this.objectMapper = objectMapper;
     }
 
+    // a gravacao roda no pool de escrita; com a fila cheia a requisicao recebe 503
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public RegistrationDTO create(@RequestBody @Valid RegistrationDTO registrationDTO) {
-
-        Meetup meetup = meetupService.getMeetupById(registrationDTO.getMeetup().getId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "meetup id doesn't exist"));
-
-        Registration entity = Registration.builder()
-                .personName(registrationDTO.getPersonName())
-                .email(registrationDTO.getEmail())
-                .dateOfRegistration(registrationDTO.getDateOfRegistration())
-                .registered(registrationDTO.getRegistered())
-                .meetup(meetup)
-                .build();
-
-        entity = registrationService.save(entity);
-        return modelMapper.map(entity, RegistrationDTO.class);
+    public CompletableFuture<ResponseEntity<RegistrationDTO>> create(@RequestBody @Valid RegistrationDTO registrationDTO) {
+
+        return dbBulkhead.write(() -> {
+            Meetup meetup = meetupService.getMeetupById(registrationDTO.getMeetup().getId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "meetup id doesn't exist"));
+
+            Registration entity = Registration.builder()
+                    .personName(registrationDTO.getPersonName())
+                    .email(registrationDTO.getEmail())
+                    .dateOfRegistration(DateMapper.toLocalDate(registrationDTO.getDateOfRegistration()))
+                    .registered(registrationDTO.getRegistered())
+                    .meetup(meetup)
+                    .build();
+
+            entity = registrationService.save(entity);
+            return ResponseEntity.status(HttpStatus.CREATED).body(RegistrationMapper.toDTO(entity));
+        });
     }
 
-    @GetMapping("{id}")
+    // modo assincrono: so valida e enfileira; a gravacao acontece em lotes no worker
+    @PostMapping("/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public RegistrationTicketDTO createAsync(@RequestBody @Valid RegistrationDTO registrationDTO) {
+
+        if (registrationDTO.getMeetup() == null || registrationDTO.getMeetup().getId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "meetup id doesn't exist");
+        }
+        DateMapper.toLocalDate(registrationDTO.getDateOfRegistration());
+
+        return registrationIngestQueue.submit(registrationDTO)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "registration queue is full"));
+    }
+
+    @GetMapping("/async/{ticket}")
     @ResponseStatus(HttpStatus.OK)
-    public RegistrationDTO getByRegistrationId(@PathVariable Integer id) {
+    public RegistrationTicketDTO getAsyncStatus(@PathVariable String ticket) {
+
+        return registrationIngestQueue.status(ticket)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "ticket doesn't exist"));
+    }
+
+    // aceita um array JSON ou NDJSON; as inscricoes sao lidas do corpo conforme chegam,
+    // sem montar a lista inteira em memoria. Uma linha mal formada interrompe a leitura:
+    // 400 com os contadores do que ja foi gravado e a posicao da linha
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkImportResultDTO> bulkCreate(InputStream body) throws IOException {
+
+        try (MappingIterator<RegistrationDTO> registrations = objectMapper.readerFor(RegistrationDTO.class).readValues(body)) {
+            BulkImportResultDTO result = registrationImportService.importAll(registrations);
+            return result.getFailedAtRow() == null
+                    ? ResponseEntity.ok(result)
+                    : ResponseEntity.badRequest().body(result);
+        }
+    }
+
+    @GetMapping("{id}")
+    public CompletableFuture<ResponseEntity<RegistrationDTO>> getByRegistrationId(
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         // pathVariable (na URL)
-        return registrationService
-                .getRegistrationById(id)
-                .map(registration -> modelMapper.map(registration, RegistrationDTO.class))
-                .orElseThrow( () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "registration id doesn't exist"));
+        return dbBulkhead.read(() -> {
+            Optional<VersionStamp> stamp = registrationService.getRegistrationVersion(id);
+            if (stamp.isPresent() && ETags.noneMatchHits(ifNoneMatch, ETags.of(stamp.get()))) {
+                return ETags.notModified(stamp.get());
+            }
+
+            RegistrationDTO registration = registrationService
+                    .getRegistrationDTOById(id)
+                    .orElseThrow( () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "registration id doesn't exist"));
+            return stamp
+                    .map(version -> ETags.withValidators(ResponseEntity.ok(), version))
+                    .orElseGet(ResponseEntity::ok)
+                    .body(registration);
+        });
     }
 
+    // If-Match desatualizado: 412 sem gravar; escrita concorrente: 409 (@Version)
     @PutMapping("{id}")
-    @ResponseStatus(HttpStatus.OK)
-    public RegistrationDTO update(@PathVariable Integer id, @RequestBody RegistrationDTO registrationDTO) {
+    public CompletableFuture<ResponseEntity<RegistrationDTO>> update(
+            @PathVariable Integer id, @RequestBody RegistrationDTO registrationDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        Meetup meetup = meetupService.getMeetupById(registrationDTO.getMeetup().getId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST));
+        return dbBulkhead.write(() -> {
+            Meetup meetup = meetupService.getMeetupById(registrationDTO.getMeetup().getId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST));
 
-        return registrationService.getRegistrationById(id)
-                .map(registration -> {
-                    registration.setPersonName(registrationDTO.getPersonName());
-                    registration.setEmail(registrationDTO.getEmail());
-                    registration.setDateOfRegistration(registrationDTO.getDateOfRegistration());
-                    registration.setRegistered(registrationDTO.getRegistered());
-                    registration.setMeetup(meetup);
+            return registrationService.getRegistrationById(id)
+                    .map(registration -> {
+                        ETags.checkIfMatch(ifMatch, ETags.stampOf(registration));
 
-                    registration = registrationService.update(registration);
+                        registration.setPersonName(registrationDTO.getPersonName());
+                        registration.setEmail(registrationDTO.getEmail());
+                        registration.setDateOfRegistration(DateMapper.toLocalDate(registrationDTO.getDateOfRegistration()));
+                        registration.setRegistered(registrationDTO.getRegistered());
+                        registration.setMeetup(meetup);
 
-                    return modelMapper.map(registration, RegistrationDTO.class);
-                }).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "registration id doesn't exist"));
+                        registration = registrationService.update(registration);
+
+                        return ETags.withValidators(ResponseEntity.ok(), ETags.stampOf(registration))
+                                .body(RegistrationMapper.toDTO(registration));
+                    }).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "registration id doesn't exist"));
+        });
     }
 
     // implementacao do metodo find
+    // dateOfRegistration e uma data completa (dd/MM/yyyy) e casa so com aquele dia;
+    // data parcial responde 400, ja que a coluna e DATE e nao texto
     @GetMapping("/find")
     public Page<RegistrationDTO> find(RegistrationDTO dto, Pageable pageRequest) {
 
-        Registration filter = modelMapper.map(dto, Registration.class);
-        Page<Registration> result = registrationService.find(filter, pageRequest);
+        Registration filter = RegistrationMapper.toEntity(dto);
+
+        return registrationService.findDTO(filter, pageRequest);
+    }
+
+    @GetMapping("/find/slice")
+    public Slice<RegistrationDTO> findSlice(RegistrationDTO dto, Pageable pageRequest) {
+
+        Registration filter = RegistrationMapper.toEntity(dto);
+        Slice<Registration> result = registrationService.findSlice(filter, pageRequest);
+
+        return result.map(RegistrationMapper::toDTO);
+    }
+
+    @GetMapping("/find/keyset")
+    public CursorPageDTO<RegistrationDTO> findByCursor(RegistrationDTO dto,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "20") int size,
+                                                       Sort sort) {
+
+        Registration filter = RegistrationMapper.toEntity(dto);
+        Cursors.requireIdOrder(sort);
+        Slice<Registration> result = registrationService.findAfter(filter, Cursors.decode(cursor), Cursors.pageSize(size));
 
         List<RegistrationDTO> list = result.getContent()
                 .stream()
-                .map(entity -> modelMapper.map(entity, RegistrationDTO.class))
+                .map(RegistrationMapper::toDTO)
                 .collect(Collectors.toList());
 
-        return new PageImpl<>(list, pageRequest, result.getTotalElements());
+        String next = result.hasNext() ? Cursors.encode(list.get(list.size() - 1).getId()) : null;
+        return new CursorPageDTO<>(list, next);
     }
 
     @GetMapping
@@ -107,6 +218,20 @@ public class RegistrationController {
         return result;
     }
 
+    // exporta em NDJSON, escrevendo cada registration assim que e lida do banco
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportAll() {
+
+        return outputStream -> registrationService.exportAll(registrationDTO -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(registrationDTO));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     @DeleteMapping("{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteByRegistrationId(@PathVariable Integer id) {
@@ -121,12 +246,12 @@ public class RegistrationController {
     @GetMapping("/meetup-registrations")
     public Page<RegistrationDTO> getRegistrationsByMeetup(@RequestBody MeetupDTO meetupDTO, Pageable pageRequest) {
 
-        Meetup meetup = modelMapper.map(meetupDTO, Meetup.class);
+        Meetup meetup = MeetupMapper.toEntity(meetupDTO);
         Page<Registration> result = registrationService.getRegistrationsByMeetup(meetup, pageRequest);
 
         List<RegistrationDTO> list = result.getContent()
                 .stream()
-                .map(entity -> modelMapper.map(entity, RegistrationDTO.class))
+                .map(RegistrationMapper::toDTO)
                 .collect(Collectors.toList());
 
         return new PageImpl<>(list, pageRequest, result.getTotalElements());
@@ -0,0 +1,67 @@
+package com.bootcamp.microservicemeetup.controller.resource;
+
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Attendee list of a meetup as RFC 4180 CSV, one line per registration, written as the
+ * rows come so the export never holds more than the line being written.
+ */
+final class RegistrationCsv {
+
+    static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+    static final String HEADER = "id,personName,email,dateOfRegistration,registered,waitlistPosition\r\n";
+
+    private RegistrationCsv() {
+    }
+
+    static void write(Writer writer, RegistrationDTO registration) throws IOException {
+        writer.write(String.valueOf(registration.getId()));
+        writer.write(',');
+        writeField(writer, registration.getPersonName());
+        writer.write(',');
+        writeField(writer, registration.getEmail());
+        writer.write(',');
+        writeField(writer, registration.getDateOfRegistration());
+        writer.write(',');
+        writeField(writer, registration.getRegistered() == null ? null : registration.getRegistered().toString());
+        writer.write(',');
+        writeField(writer, registration.getWaitlistPosition() == null ? null : registration.getWaitlistPosition().toString());
+        writer.write("\r\n");
+    }
+
+    // campos com separador, aspas ou quebra de linha vao entre aspas, com as aspas dobradas
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    // gzip so quando o cliente aceita (Accept-Encoding), e nao com q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,33 @@
+package com.bootcamp.microservicemeetup.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Version and last modification of a row, read without loading the entity; used to
+ * build the ETag and Last-Modified headers and to answer conditional requests.
+ */
+@Data
+@AllArgsConstructor
+public class VersionStamp {
+
+    // "3" para um meetup; "5.3" para uma inscricao (a dela e a do meetup embutido no DTO);
+    // null enquanto a linha nao foi gravada
+    private String tag;
+
+    private Instant lastModified;
+
+    // usado pelas consultas de projecao (select new ...)
+    public VersionStamp(Long version, Instant lastModified) {
+        this(version == null ? null : String.valueOf(version), lastModified);
+    }
+
+    public VersionStamp(Long version, Long parentVersion, Instant lastModified, Instant parentLastModified) {
+        this(version == null ? null : version + "." + parentVersion,
+                parentLastModified != null && (lastModified == null || parentLastModified.isAfter(lastModified))
+                        ? parentLastModified
+                        : lastModified);
+    }
+}
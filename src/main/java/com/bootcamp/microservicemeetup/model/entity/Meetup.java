@@ -3,22 +3,28 @@ package com.bootcamp.microservicemeetup.model.entity;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import javax.persistence.*;
-import java.util.Date;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 @Data
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @Entity
-@Table(name = "meetup")
+@Table(name = "meetup", indexes = @Index(name = "idx_meetup_date", columnList = "meetup_date"))
 public class Meetup {
 
+    // sequence com otimizador pooled: reserva 50 ids por ida ao banco e, ao contrario
+    // de IDENTITY, deixa o Hibernate agrupar os inserts em batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meetup_seq")
+    @SequenceGenerator(name = "meetup_seq", sequenceName = "meetup_seq", allocationSize = 50)
     private Integer id;
 
     @Column
@@ -31,13 +37,39 @@ public class Meetup {
     private String organizer;
 
     @Column(name = "meetup_date")
-    private String meetupDate;
+    private LocalDate meetupDate;
 
     @Column
     private String address;
 
+    // vagas; null = sem limite
+    @Column
+    private Integer capacity;
+
+    // controle de concorrencia otimista; tambem compoe o ETag
+    @Version
+    private Long version;
+
+    @Column(name = "last_modified")
+    private Instant lastModified;
+
+    // fora do toString/equals: a colecao e lazy e a instancia pode vir do cache, sem sessao
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "meetup")
     private List<Registration> registrations;
 
+    /**
+     * Detached copy of the columns, without the registrations; what the cache holds and
+     * what readers of the cache get, so no two threads share a mutable instance.
+     */
+    public Meetup copy() {
+        return toBuilder().registrations(null).build();
+    }
 
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastModified = Instant.now();
+    }
 }
@@ -0,0 +1,52 @@
+package com.bootcamp.microservicemeetup.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * One stripe of the registration counters of a meetup. Each meetup has
+ * {@code MeetupCounters.SLOTS} rows and every delta goes to one of them at random, so
+ * concurrent sign-ups for the same meetup rarely wait on the same row lock; the counts
+ * are the sums over the slots. Kept apart from {@link Meetup} so a delta never touches
+ * the meetup row, its version or its ETag.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@IdClass(MeetupCounter.Key.class)
+@Table(name = "meetup_counter")
+public class MeetupCounter {
+
+    // sem FK: o apagamento do meetup remove os contadores na mesma transacao
+    @Id
+    @Column(name = "meetup_id")
+    private Integer meetupId;
+
+    @Id
+    @Column
+    private Integer slot;
+
+    // inscricoes e check-ins (registered = true) somados nesta faixa
+    @Column(name = "registered_count", nullable = false)
+    private long registeredCount;
+
+    @Column(name = "confirmed_count", nullable = false)
+    private long confirmedCount;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+
+        private Integer meetupId;
+
+        private Integer slot;
+    }
+}
@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.persistence.*;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Objects;
 
@@ -14,11 +16,17 @@ import java.util.Objects;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "registration")
+@Table(name = "registration",
+        uniqueConstraints = @UniqueConstraint(name = Registration.UNIQUE_EMAIL_MEETUP, columnNames = {"email", "id_meetup"}),
+        indexes = @Index(name = "idx_registration_waitlist", columnList = "id_meetup, waitlist_position"))
 public class Registration {
+
+    public static final String UNIQUE_EMAIL_MEETUP = "uk_registration_email_meetup";
+
     @Id
     @Column(name = "registration_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "registration_seq")
+    @SequenceGenerator(name = "registration_seq", sequenceName = "registration_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "person_name")
@@ -28,16 +36,33 @@ public class Registration {
     private String email;
 
     @Column(name = "date_of_registration")
-    private String dateOfRegistration;
+    private LocalDate dateOfRegistration;
 
     @Column
     private Boolean registered;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_meetup")
     // Muitos registrations para 1 meetup - registro só pode ir em um meetup
     private Meetup meetup;
 
+    // posicao na fila de espera do meetup; null = tem vaga
+    @Column(name = "waitlist_position")
+    private Long waitlistPosition;
+
+    // versao otimista; junto com a do meetup forma o ETag da inscricao
+    @Version
+    private Long version;
+
+    @Column(name = "last_modified")
+    private Instant lastModified;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastModified = Instant.now();
+    }
+
 //    @Override
 //    public boolean equals(Object o) {
 //        if (this == o) return true;
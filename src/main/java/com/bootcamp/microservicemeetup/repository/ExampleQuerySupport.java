@@ -0,0 +1,266 @@
+package com.bootcamp.microservicemeetup.repository;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.query.Query;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Base for the custom repository fragments. Builds criteria queries from the same
+ * {@link Example} filters the services already use, so the extra query shapes keep
+ * the ignore-case / CONTAINING semantics of {@code findAll(Example, Pageable)}.
+ * <p>
+ * Every query can also be restricted to a set of candidate {@code ids} (e.g. resolved
+ * by the search index); {@code null} means no restriction.
+ */
+abstract class ExampleQuerySupport<T> {
+
+    @PersistenceContext
+    protected EntityManager entityManager;
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final Class<T> domainClass;
+
+    protected ExampleQuerySupport(Class<T> domainClass) {
+        this.domainClass = domainClass;
+    }
+
+    /**
+     * Same rows and count as {@code findAll(Example, Pageable)}.
+     */
+    protected Page<T> findPageBy(Example<T> example, Collection<Integer> ids, Pageable pageable) {
+        if (ids != null && ids.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        fetchAssociations(root);
+
+        query.select(root)
+                .where(predicates(root, cb, example, ids))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        return PageableExecutionUtils.getPage(paged(entityManager.createQuery(query), pageable).getResultList(),
+                pageable, () -> countBy(example, ids));
+    }
+
+    /**
+     * Same filter as {@code findAll(Example, Pageable)}, but selects only {@code columns}
+     * straight into {@code projection} through its constructor, so no managed entity is
+     * hydrated. The count query only runs when the page size does not already tell the total.
+     */
+    protected <R> Page<R> findProjectedBy(Example<T> example, Collection<Integer> ids, Pageable pageable,
+                                          Class<R> projection, Function<Root<T>, List<Selection<?>>> columns) {
+        if (ids != null && ids.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(projection);
+        Root<T> root = query.from(domainClass);
+
+        query.select(cb.construct(projection, columns.apply(root).toArray(new Selection<?>[0])))
+                .where(predicates(root, cb, example, ids))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        return PageableExecutionUtils.getPage(paged(entityManager.createQuery(query), pageable).getResultList(),
+                pageable, () -> countBy(example, ids));
+    }
+
+    /**
+     * Hook for fetch-joining the associations the listings read, so mapping the
+     * results to DTOs does not fire one select per row.
+     */
+    protected void fetchAssociations(Root<T> root) {
+    }
+
+    /**
+     * Streams the rows of {@code jpql} through a JDBC cursor, read-only, clearing the
+     * persistence context every fetch so memory does not grow with the table size.
+     * Must be called inside a transaction.
+     */
+    protected void forEachRow(String jpql, Consumer<T> action) {
+        try (Stream<T> rows = entityManager.createQuery(jpql, domainClass)
+                .setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()) {
+
+            int count = 0;
+            for (Iterator<T> iterator = rows.iterator(); iterator.hasNext(); ) {
+                action.accept(iterator.next());
+                if (++count % STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks the scalar rows of {@code jpql} with a forward-only cursor. Nothing is hydrated
+     * into the persistence context, and on H2 the query runs lazily, so the database does not
+     * build the whole result before handing out the first row either. Must be called inside
+     * a transaction.
+     */
+    protected void scrollRows(String jpql, Map<String, Object> parameters, Consumer<Object[]> action) {
+        Session session = entityManager.unwrap(Session.class);
+        session.doWork(connection -> setH2LazyExecution(connection, true));
+        try {
+            Query<Object[]> query = session.createQuery(jpql, Object[].class)
+                    .setFetchSize(STREAM_FETCH_SIZE)
+                    .setReadOnly(true);
+            parameters.forEach((name, value) -> query.setParameter(name, value));
+
+            try (ScrollableResults rows = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (rows.next()) {
+                    action.accept(rows.get());
+                }
+            }
+        } finally {
+            session.doWork(connection -> setH2LazyExecution(connection, false));
+        }
+    }
+
+    // sem isso o H2 materializa o resultado inteiro (em memoria) antes da primeira linha
+    private static void setH2LazyExecution(Connection connection, boolean lazy) throws SQLException {
+        if (!"H2".equals(connection.getMetaData().getDatabaseProductName())) {
+            return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET LAZY_QUERY_EXECUTION " + (lazy ? 1 : 0));
+        }
+    }
+
+    /**
+     * Seeks past {@code afterId} instead of skipping rows with OFFSET, ordered by id.
+     * The seek only works on the order it compares, so there is no {@code Sort} here;
+     * the cursor endpoints refuse any other one.
+     */
+    protected List<T> findAfterId(Example<T> example, Collection<Integer> ids, Integer afterId, int limit) {
+        if (ids != null && ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        fetchAssociations(root);
+
+        Predicate[] predicates = predicates(root, cb, example, ids);
+        if (afterId != null) {
+            predicates = append(predicates, cb.greaterThan(root.<Integer>get("id"), afterId));
+        }
+
+        query.select(root)
+                .where(predicates)
+                .orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Same rows as {@code findAll(Example, Pageable)} but without the count query:
+     * reads one row past the page to find out if there is a next slice.
+     */
+    protected Slice<T> findSliceBy(Example<T> example, Collection<Integer> ids, Pageable pageable) {
+        if (ids != null && ids.isEmpty()) {
+            return new SliceImpl<>(Collections.emptyList(), pageable, false);
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        fetchAssociations(root);
+
+        query.select(root)
+                .where(predicates(root, cb, example, ids))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+        }
+
+        List<T> rows = typedQuery
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    private long countBy(Example<T> example, Collection<Integer> ids) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(domainClass);
+
+        query.select(cb.count(root)).where(predicates(root, cb, example, ids));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private Predicate[] predicates(Root<T> root, CriteriaBuilder cb, Example<T> example, Collection<Integer> ids) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        Predicate byExample = QueryByExamplePredicateBuilder.getPredicate(root, cb, example);
+        if (byExample != null) {
+            predicates.add(byExample);
+        }
+        if (ids != null) {
+            predicates.add(root.get("id").in(ids));
+        }
+
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    private static Predicate[] append(Predicate[] predicates, Predicate predicate) {
+        Predicate[] result = new Predicate[predicates.length + 1];
+        System.arraycopy(predicates, 0, result, 0, predicates.length);
+        result[predicates.length] = predicate;
+        return result;
+    }
+
+    private static <R> TypedQuery<R> paged(TypedQuery<R> query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
+}
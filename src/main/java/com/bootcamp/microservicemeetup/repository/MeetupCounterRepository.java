@@ -0,0 +1,48 @@
+package com.bootcamp.microservicemeetup.repository;
+
+import com.bootcamp.microservicemeetup.model.entity.MeetupCounter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface MeetupCounterRepository extends JpaRepository<MeetupCounter, MeetupCounter.Key> {
+
+    // insert direto: com chave atribuida, o save() faria um select (merge) antes de cada linha
+    @Modifying
+    @Query(value = "insert into meetup_counter (meetup_id, slot, registered_count, confirmed_count) " +
+            "values (:meetupId, :slot, 0, 0)", nativeQuery = true)
+    int insertSlot(@Param("meetupId") Integer meetupId, @Param("slot") int slot);
+
+    // delta em uma faixa; 0 = o meetup ainda nao tem as linhas de contador
+    @Modifying
+    @Query("update MeetupCounter c set c.registeredCount = c.registeredCount + :registered, " +
+            "c.confirmedCount = c.confirmedCount + :confirmed " +
+            "where c.meetupId = :meetupId and c.slot = :slot")
+    int add(@Param("meetupId") Integer meetupId, @Param("slot") int slot,
+            @Param("registered") long registered, @Param("confirmed") long confirmed);
+
+    // [meetupId, inscricoes, check-ins], somando as faixas
+    @Query("select c.meetupId, sum(c.registeredCount), sum(c.confirmedCount) " +
+            "from MeetupCounter c where c.meetupId in :meetupIds group by c.meetupId")
+    List<Object[]> sumByMeetupIdIn(@Param("meetupIds") Collection<Integer> meetupIds);
+
+    // [id, inscricoes e check-ins gravados, faixas existentes, inscricoes e check-ins reais]
+    // de um lote de meetups, tudo na mesma leitura
+    @Query("select m.id, " +
+            "(select coalesce(sum(c.registeredCount), 0) from MeetupCounter c where c.meetupId = m.id), " +
+            "(select coalesce(sum(c.confirmedCount), 0) from MeetupCounter c where c.meetupId = m.id), " +
+            "(select count(c) from MeetupCounter c where c.meetupId = m.id), " +
+            "(select count(r) from Registration r where r.meetup.id = m.id), " +
+            "(select count(r) from Registration r where r.meetup.id = m.id and r.registered = true) " +
+            "from Meetup m where m.id > :afterId order by m.id")
+    List<Object[]> findCountersAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from MeetupCounter c where c.meetupId = :meetupId")
+    int deleteByMeetupId(@Param("meetupId") Integer meetupId);
+}
@@ -1,14 +1,26 @@
 package com.bootcamp.microservicemeetup.repository;
 
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.model.VersionStamp;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface MeetupRepository extends JpaRepository<Meetup, Integer> {
+import javax.persistence.LockModeType;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface MeetupRepository extends JpaRepository<Meetup, Integer>, MeetupRepositoryCustom {
 
     boolean existsById(Integer id);
 
@@ -30,6 +42,43 @@ public interface MeetupRepository extends JpaRepository<Meetup, Integer> {
     );
 
 
+    // projecoes: leem so as colunas do DTO, sem carregar entidades gerenciadas
+    @Query("select new com.bootcamp.microservicemeetup.controller.dto.MeetupDTO(" +
+            "m.id, m.event, m.description, m.organizer, m.meetupDate, m.address, m.capacity) " +
+            "from Meetup m order by m.id")
+    List<MeetupDTO> findAllDTO();
+
+    @Query("select new com.bootcamp.microservicemeetup.controller.dto.MeetupDTO(" +
+            "m.id, m.event, m.description, m.organizer, m.meetupDate, m.address, m.capacity, " +
+            "m.version, m.lastModified) " +
+            "from Meetup m where m.id = :id")
+    Optional<MeetupDTO> findDTOById(@Param("id") Integer id);
+
+    // so versao e data de alteracao, pela chave primaria: responde If-None-Match sem carregar o meetup
+    @Query("select new com.bootcamp.microservicemeetup.model.VersionStamp(m.version, m.lastModified) " +
+            "from Meetup m where m.id = :id")
+    Optional<VersionStamp> findVersionById(@Param("id") Integer id);
+
+    // range scan em idx_meetup_date, ja na ordem do indice
+    @Query("select new com.bootcamp.microservicemeetup.controller.dto.MeetupDTO(" +
+            "m.id, m.event, m.description, m.organizer, m.meetupDate, m.address, m.capacity) " +
+            "from Meetup m where m.meetupDate between :from and :to order by m.meetupDate, m.id")
+    Slice<MeetupDTO> findDTOByMeetupDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    // select ... for update: serializa as promocoes da fila de espera de um meetup
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select m from Meetup m where m.id = :id")
+    Optional<Meetup> lockById(@Param("id") Integer id);
+
+    // delete direto por id, sem carregar a entidade; 0 = o meetup nao existia
+    @Modifying
+    @Query("delete from Meetup m where m.id = :id")
+    int bulkDeleteById(@Param("id") Integer id);
+
+    // pares [id, capacidade] dos meetups existentes
+    @Query("select m.id, m.capacity from Meetup m where m.id in :ids")
+    List<Object[]> findIdAndCapacityByIdIn(@Param("ids") Collection<Integer> ids);
+
 //    Page<Meetup> findByMeetup(Meetup meetup, Pageable pageable );
 }
 
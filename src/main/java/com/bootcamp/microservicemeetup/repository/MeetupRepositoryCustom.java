@@ -0,0 +1,31 @@
+package com.bootcamp.microservicemeetup.repository;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface MeetupRepositoryCustom {
+
+    List<Meetup> findAfter(Example<Meetup> example, Integer afterId, int limit);
+
+    List<Meetup> findAfter(Example<Meetup> example, Collection<Integer> ids, Integer afterId, int limit);
+
+    void streamAll(Consumer<Meetup> action);
+
+    Page<Meetup> findPage(Example<Meetup> example, Collection<Integer> ids, Pageable pageable);
+
+    Slice<Meetup> findSlice(Example<Meetup> example, Pageable pageable);
+
+    Slice<Meetup> findSlice(Example<Meetup> example, Collection<Integer> ids, Pageable pageable);
+
+    Page<MeetupDTO> findDTO(Example<Meetup> example, Pageable pageable);
+
+    Page<MeetupDTO> findDTO(Example<Meetup> example, Collection<Integer> ids, Pageable pageable);
+}
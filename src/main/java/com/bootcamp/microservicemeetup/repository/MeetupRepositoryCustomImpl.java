@@ -0,0 +1,67 @@
+package com.bootcamp.microservicemeetup.repository;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class MeetupRepositoryCustomImpl extends ExampleQuerySupport<Meetup> implements MeetupRepositoryCustom {
+
+    public MeetupRepositoryCustomImpl() {
+        super(Meetup.class);
+    }
+
+    @Override
+    public List<Meetup> findAfter(Example<Meetup> example, Integer afterId, int limit) {
+        return findAfterId(example, null, afterId, limit);
+    }
+
+    @Override
+    public List<Meetup> findAfter(Example<Meetup> example, Collection<Integer> ids, Integer afterId, int limit) {
+        return findAfterId(example, ids, afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Meetup> action) {
+        forEachRow("select m from Meetup m order by m.id", action);
+    }
+
+    @Override
+    public Page<Meetup> findPage(Example<Meetup> example, Collection<Integer> ids, Pageable pageable) {
+        return findPageBy(example, ids, pageable);
+    }
+
+    @Override
+    public Slice<Meetup> findSlice(Example<Meetup> example, Pageable pageable) {
+        return findSliceBy(example, null, pageable);
+    }
+
+    @Override
+    public Slice<Meetup> findSlice(Example<Meetup> example, Collection<Integer> ids, Pageable pageable) {
+        return findSliceBy(example, ids, pageable);
+    }
+
+    @Override
+    public Page<MeetupDTO> findDTO(Example<Meetup> example, Pageable pageable) {
+        return findDTO(example, null, pageable);
+    }
+
+    @Override
+    public Page<MeetupDTO> findDTO(Example<Meetup> example, Collection<Integer> ids, Pageable pageable) {
+        return findProjectedBy(example, ids, pageable, MeetupDTO.class, meetup -> Arrays.asList(
+                meetup.get("id"),
+                meetup.get("event"),
+                meetup.get("description"),
+                meetup.get("organizer"),
+                meetup.get("meetupDate"),
+                meetup.get("address"),
+                meetup.get("capacity")));
+    }
+}
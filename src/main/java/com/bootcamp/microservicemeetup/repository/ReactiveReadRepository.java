@@ -0,0 +1,112 @@
+package com.bootcamp.microservicemeetup.repository;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-only queries over the {@code meetup} and {@code registration} tables through
+ * R2DBC, for the reactive read server. Rows are mapped straight into the same DTOs the
+ * JPA projections produce, so both stacks answer with the same JSON.
+ */
+public class ReactiveReadRepository {
+
+    // contadores somados das faixas em meetup_counter (ver MeetupCounters); o H2 devolve
+    // SUM de BIGINT como DECIMAL, que o driver R2DBC nao converte para Long
+    private static final String MEETUP_COLUMNS =
+            "m.id, m.event, m.description, m.organizer, m.meetup_date, m.address, m.capacity, "
+                    + "CAST((SELECT COALESCE(SUM(c.registered_count), 0) FROM meetup_counter c WHERE c.meetup_id = m.id) AS BIGINT), "
+                    + "CAST((SELECT COALESCE(SUM(c.confirmed_count), 0) FROM meetup_counter c WHERE c.meetup_id = m.id) AS BIGINT)";
+
+    private static final String REGISTRATION_COLUMNS =
+            "r.registration_id, r.person_name, r.email, r.date_of_registration, r.registered, "
+                    + "m.id, m.event, m.description, m.organizer, m.meetup_date, m.address, r.waitlist_position";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveReadRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<MeetupDTO> findMeetupById(Integer id) {
+        return databaseClient
+                .sql("SELECT " + MEETUP_COLUMNS + " FROM meetup m WHERE m.id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> toMeetupDTO(row))
+                .one();
+    }
+
+    // mesmo seek por id de findAfter: le no maximo limit linhas depois de afterId
+    public Flux<MeetupDTO> findMeetupsAfter(MeetupFilterDTO filter, Integer afterId, int limit) {
+        Map<String, String> likes = new LinkedHashMap<>();
+        if (filter.getEvent() != null) {
+            likes.put("event", filter.getEvent());
+        }
+        if (filter.getOrganizer() != null) {
+            likes.put("organizer", filter.getOrganizer());
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT " + MEETUP_COLUMNS + " FROM meetup m WHERE m.id > :afterId");
+        likes.keySet().forEach(column -> sql.append(" AND LOWER(m.").append(column).append(") LIKE :").append(column));
+        sql.append(" ORDER BY m.id LIMIT :limit");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .bind("afterId", afterId == null ? 0 : afterId)
+                .bind("limit", limit);
+        for (Map.Entry<String, String> like : likes.entrySet()) {
+            spec = spec.bind(like.getKey(), "%" + like.getValue().toLowerCase() + "%");
+        }
+        return spec.map((row, metadata) -> toMeetupDTO(row)).all();
+    }
+
+    public Flux<RegistrationDTO> findRegistrationsByMeetupAfter(Integer meetupId, Integer afterId, int limit) {
+        return databaseClient
+                .sql("SELECT " + REGISTRATION_COLUMNS + " FROM registration r JOIN meetup m ON m.id = r.id_meetup"
+                        + " WHERE r.id_meetup = :meetupId AND r.registration_id > :afterId"
+                        + " ORDER BY r.registration_id LIMIT :limit")
+                .bind("meetupId", meetupId)
+                .bind("afterId", afterId == null ? 0 : afterId)
+                .bind("limit", limit)
+                .map((row, metadata) -> toRegistrationDTO(row))
+                .all();
+    }
+
+    // por posicao: o H2 devolve os nomes das colunas em maiusculas
+    private static MeetupDTO toMeetupDTO(Row row) {
+        MeetupDTO meetup = new MeetupDTO(
+                row.get(0, Integer.class),
+                row.get(1, String.class),
+                row.get(2, String.class),
+                row.get(3, String.class),
+                row.get(4, LocalDate.class),
+                row.get(5, String.class),
+                row.get(6, Integer.class));
+        meetup.setRegisteredCount(row.get(7, Long.class));
+        meetup.setConfirmedCount(row.get(8, Long.class));
+        return meetup;
+    }
+
+    private static RegistrationDTO toRegistrationDTO(Row row) {
+        return new RegistrationDTO(
+                row.get(0, Integer.class),
+                row.get(1, String.class),
+                row.get(2, String.class),
+                row.get(3, LocalDate.class),
+                row.get(4, Boolean.class),
+                row.get(5, Integer.class),
+                row.get(6, String.class),
+                row.get(7, String.class),
+                row.get(8, String.class),
+                row.get(9, LocalDate.class),
+                row.get(10, String.class),
+                row.get(11, Long.class));
+    }
+}
@@ -1,23 +1,40 @@
 package com.bootcamp.microservicemeetup.repository;
 
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.model.VersionStamp;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
+import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface RegistrationRepository extends JpaRepository<Registration, Integer> {
+public interface RegistrationRepository extends JpaRepository<Registration, Integer>, RegistrationRepositoryCustom {
 
     boolean existsById(Integer id);
 
     boolean existsByEmailAndMeetup(String email, Meetup meetup);
 
+    @EntityGraph(attributePaths = "meetup")
     Optional<Registration> findById(Integer integer);
 
+    // carrega o meetup no mesmo select para evitar N+1 nas listagens
+    @Override
+    @EntityGraph(attributePaths = "meetup")
+    List<Registration> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "meetup")
+    <S extends Registration> Page<S> findAll(Example<S> example, Pageable pageable);
+
 //    Optional<Registration> findByRegistration(String registrationAttribute);
 
 //    @Query( value = " select l from Registration as l " +
@@ -28,5 +45,62 @@ public interface RegistrationRepository extends JpaRepository<Registration, Inte
 //            Pageable pageable
 //    );
 
+    @EntityGraph(attributePaths = "meetup")
     Page<Registration> findByMeetup(Meetup meetup, Pageable pageable);
+
+    // vagas ocupadas: quem esta na fila de espera nao conta
+    @Query("select count(r) from Registration r where r.meetup.id = :meetupId and r.waitlistPosition is null")
+    long countByMeetupId(@Param("meetupId") Integer meetupId);
+
+    // fila de espera: leituras pelo indice (id_meetup, waitlist_position)
+    @Query("select max(r.waitlistPosition) from Registration r where r.meetup.id = :meetupId")
+    Long findMaxWaitlistPosition(@Param("meetupId") Integer meetupId);
+
+    @Query("select r from Registration r where r.meetup.id = :meetupId and r.waitlistPosition is not null " +
+            "order by r.waitlistPosition, r.id")
+    List<Registration> findWaitlistHead(@Param("meetupId") Integer meetupId, Pageable pageable);
+
+    // o banco ainda tem o meetup anterior quando a inscricao troca de meetup
+    @Query("select r.meetup.id from Registration r where r.id = :id")
+    Optional<Integer> findMeetupIdById(@Param("id") Integer id);
+
+    // check-in gravado, para o delta de confirmedCount no update
+    @Query("select r.registered from Registration r where r.id = :id")
+    Optional<Boolean> findRegisteredById(@Param("id") Integer id);
+
+    // exclusao do meetup: ids em lotes (sem order by, o limit para no meio do indice) e
+    // deletes direto no banco, sem carregar as inscricoes
+    @Query("select r.id from Registration r where r.meetup.id = :meetupId")
+    List<Integer> findIdsByMeetupId(@Param("meetupId") Integer meetupId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Registration r where r.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query("delete from Registration r where r.meetup.id = :meetupId")
+    int deleteByMeetupId(@Param("meetupId") Integer meetupId);
+
+    // pares [email, id do meetup] ja gravados, para a importacao em lote pular sem violar o indice unico
+    @Query("select r.email, r.meetup.id from Registration r where r.email in :emails")
+    List<Object[]> findEmailAndMeetupIdByEmailIn(@Param("emails") Collection<String> emails);
+
+    // projecoes: leem so as colunas do DTO, sem carregar entidades gerenciadas
+    @Query("select new com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO(" +
+            "r.id, r.personName, r.email, r.dateOfRegistration, r.registered, " +
+            "m.id, m.event, m.description, m.organizer, m.meetupDate, m.address, r.waitlistPosition) " +
+            "from Registration r left join r.meetup m order by r.id")
+    List<RegistrationDTO> findAllDTO();
+
+    @Query("select new com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO(" +
+            "r.id, r.personName, r.email, r.dateOfRegistration, r.registered, " +
+            "m.id, m.event, m.description, m.organizer, m.meetupDate, m.address, r.waitlistPosition) " +
+            "from Registration r left join r.meetup m where r.id = :id")
+    Optional<RegistrationDTO> findDTOById(@Param("id") Integer id);
+
+    // o DTO embute o meetup, entao a versao da inscricao leva junto a do meetup
+    @Query("select new com.bootcamp.microservicemeetup.model.VersionStamp(" +
+            "r.version, m.version, r.lastModified, m.lastModified) " +
+            "from Registration r left join r.meetup m where r.id = :id")
+    Optional<VersionStamp> findVersionById(@Param("id") Integer id);
 }
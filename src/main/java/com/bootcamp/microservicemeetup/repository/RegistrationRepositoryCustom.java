@@ -0,0 +1,33 @@
+package com.bootcamp.microservicemeetup.repository;
+
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface RegistrationRepositoryCustom {
+
+    List<Registration> findAfter(Example<Registration> example, Integer afterId, int limit);
+
+    List<Registration> findAfter(Example<Registration> example, Collection<Integer> ids, Integer afterId, int limit);
+
+    void streamAll(Consumer<Registration> action);
+
+    void streamByMeetupId(Integer meetupId, Consumer<RegistrationDTO> action);
+
+    Page<Registration> findPage(Example<Registration> example, Collection<Integer> ids, Pageable pageable);
+
+    Slice<Registration> findSlice(Example<Registration> example, Pageable pageable);
+
+    Slice<Registration> findSlice(Example<Registration> example, Collection<Integer> ids, Pageable pageable);
+
+    Page<RegistrationDTO> findDTO(Example<Registration> example, Pageable pageable);
+
+    Page<RegistrationDTO> findDTO(Example<Registration> example, Collection<Integer> ids, Pageable pageable);
+}
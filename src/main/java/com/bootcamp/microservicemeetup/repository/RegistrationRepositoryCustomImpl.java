@@ -0,0 +1,105 @@
+package com.bootcamp.microservicemeetup.repository;
+
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.DateMapper;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import java.util.Arrays;
+import java.util.Collection;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class RegistrationRepositoryCustomImpl extends ExampleQuerySupport<Registration> implements RegistrationRepositoryCustom {
+
+    public RegistrationRepositoryCustomImpl() {
+        super(Registration.class);
+    }
+
+    @Override
+    protected void fetchAssociations(Root<Registration> root) {
+        root.fetch("meetup", JoinType.LEFT);
+    }
+
+    @Override
+    public List<Registration> findAfter(Example<Registration> example, Integer afterId, int limit) {
+        return findAfterId(example, null, afterId, limit);
+    }
+
+    @Override
+    public List<Registration> findAfter(Example<Registration> example, Collection<Integer> ids, Integer afterId, int limit) {
+        return findAfterId(example, ids, afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Registration> action) {
+        forEachRow("select r from Registration r left join fetch r.meetup order by r.id", action);
+    }
+
+    // sem order by: as linhas saem na ordem do idx_registration_waitlist, sem ordenar tudo antes
+    // da primeira; o meetup ja e conhecido por quem chama, entao fica fora do DTO
+    @Override
+    public void streamByMeetupId(Integer meetupId, Consumer<RegistrationDTO> action) {
+        scrollRows("select r.id, r.personName, r.email, r.dateOfRegistration, r.registered, r.waitlistPosition " +
+                        "from Registration r where r.meetup.id = :meetupId",
+                Map.of("meetupId", meetupId),
+                row -> action.accept(RegistrationDTO.builder()
+                        .id((Integer) row[0])
+                        .personName((String) row[1])
+                        .email((String) row[2])
+                        .dateOfRegistration(DateMapper.toString((LocalDate) row[3]))
+                        .registered((Boolean) row[4])
+                        .waitlistPosition((Long) row[5])
+                        .build()));
+    }
+
+    @Override
+    public Page<Registration> findPage(Example<Registration> example, Collection<Integer> ids, Pageable pageable) {
+        return findPageBy(example, ids, pageable);
+    }
+
+    @Override
+    public Slice<Registration> findSlice(Example<Registration> example, Pageable pageable) {
+        return findSliceBy(example, null, pageable);
+    }
+
+    @Override
+    public Slice<Registration> findSlice(Example<Registration> example, Collection<Integer> ids, Pageable pageable) {
+        return findSliceBy(example, ids, pageable);
+    }
+
+    @Override
+    public Page<RegistrationDTO> findDTO(Example<Registration> example, Pageable pageable) {
+        return findDTO(example, null, pageable);
+    }
+
+    @Override
+    public Page<RegistrationDTO> findDTO(Example<Registration> example, Collection<Integer> ids, Pageable pageable) {
+        return findProjectedBy(example, ids, pageable, RegistrationDTO.class, registration -> {
+            Join<Registration, Meetup> meetup = registration.join("meetup", JoinType.LEFT);
+
+            return Arrays.asList(
+                    registration.get("id"),
+                    registration.get("personName"),
+                    registration.get("email"),
+                    registration.get("dateOfRegistration"),
+                    registration.get("registered"),
+                    meetup.get("id"),
+                    meetup.get("event"),
+                    meetup.get("description"),
+                    meetup.get("organizer"),
+                    meetup.get("meetupDate"),
+                    meetup.get("address"),
+                    registration.get("waitlistPosition"));
+        });
+    }
+}
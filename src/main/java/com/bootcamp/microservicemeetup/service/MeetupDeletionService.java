@@ -0,0 +1,10 @@
+package com.bootcamp.microservicemeetup.service;
+
+public interface MeetupDeletionService {
+
+    /**
+     * Deletes the meetup and all its registrations. Returns false when the meetup
+     * doesn't exist.
+     */
+    boolean deleteWithRegistrations(Integer meetupId);
+}
@@ -2,13 +2,18 @@ package com.bootcamp.microservicemeetup.service;
 
 import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.model.VersionStamp;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface MeetupService {
 
@@ -16,12 +21,34 @@ public interface MeetupService {
 
     Optional<Meetup> getMeetupById(Integer id);
 
-     Meetup update(Meetup meetup);
+    Optional<MeetupDTO> getMeetupDTOById(Integer id);
+
+    Optional<VersionStamp> getMeetupVersion(Integer id);
+
+    /**
+     * Loads the current row, lets {@code changes} check preconditions and edit it, and
+     * saves it in the same transaction. Empty when the meetup doesn't exist.
+     */
+    Optional<Meetup> update(Integer id, Consumer<Meetup> changes);
 
     Page<Meetup> find(Meetup filter, Pageable pageable);
 
+    Page<MeetupDTO> findDTO(Meetup filter, Pageable pageable);
+
+    Slice<Meetup> findSlice(Meetup filter, Pageable pageable);
+
+    Slice<Meetup> findAfter(Meetup filter, Integer afterId, int size);
+
+    Slice<MeetupDTO> findUpcoming(LocalDate from, LocalDate to, Pageable pageable);
+
     List<MeetupDTO> getAll();
 
-    void delete(Meetup meetup);
+    /**
+     * Sets the current registration counters on DTOs mapped from entities; the other
+     * DTO reads already come with them.
+     */
+    <T extends Collection<MeetupDTO>> T withCounters(T meetups);
+
+    void exportAll(Consumer<MeetupDTO> consumer);
 
 }
@@ -0,0 +1,11 @@
+package com.bootcamp.microservicemeetup.service;
+
+import com.bootcamp.microservicemeetup.controller.dto.BulkImportResultDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+
+import java.util.Iterator;
+
+public interface RegistrationImportService {
+
+    BulkImportResultDTO importAll(Iterator<RegistrationDTO> registrations);
+}
@@ -2,13 +2,16 @@ package com.bootcamp.microservicemeetup.service;
 
 import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
 import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.model.VersionStamp;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface RegistrationService {
 
@@ -16,14 +19,28 @@ public interface RegistrationService {
 
     Optional<Registration> getRegistrationById(Integer id);
 
+    Optional<RegistrationDTO> getRegistrationDTOById(Integer id);
+
+    Optional<VersionStamp> getRegistrationVersion(Integer id);
+
     void delete(Registration registration);
 
     Registration update(Registration registration);
 
     Page<Registration> find(Registration filter, Pageable pageRequest);
 
+    Page<RegistrationDTO> findDTO(Registration filter, Pageable pageRequest);
+
+    Slice<Registration> findSlice(Registration filter, Pageable pageRequest);
+
+    Slice<Registration> findAfter(Registration filter, Integer afterId, int size);
+
     List<RegistrationDTO> getAll();
 
+    void exportAll(Consumer<RegistrationDTO> consumer);
+
+    void exportByMeetup(Integer meetupId, Consumer<RegistrationDTO> consumer);
+
     Page<Registration> getRegistrationsByMeetup(Meetup meetup, Pageable pageRequest);
 
 }
@@ -0,0 +1,115 @@
+package com.bootcamp.microservicemeetup.service.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.logging.log4j.ThreadContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the repository work of the async endpoints off the servlet threads, on two
+ * bounded pools: one for reads and one for writes. A burst of registrations fills the
+ * write queue and is then rejected ({@link RejectedExecutionException}, answered with
+ * 503) without touching the threads that serve lookups.
+ *
+ * <p>Queue depth, active threads and rejections are published per pool as
+ * {@code db.executor.queued}, {@code db.executor.active} and {@code db.executor.rejected}.
+ */
+@Component
+public class DbBulkhead {
+
+    static final String READ = "db-read";
+    static final String WRITE = "db-write";
+
+    private final ThreadPoolExecutor readExecutor;
+    private final ThreadPoolExecutor writeExecutor;
+
+    @Autowired
+    public DbBulkhead(@Value("${db.executor.read.pool-size:6}") int readPoolSize,
+                      @Value("${db.executor.read.queue-capacity:200}") int readQueueCapacity,
+                      @Value("${db.executor.write.pool-size:4}") int writePoolSize,
+                      @Value("${db.executor.write.queue-capacity:100}") int writeQueueCapacity,
+                      ObjectProvider<MeterRegistry> registry) {
+        this(readPoolSize, readQueueCapacity, writePoolSize, writeQueueCapacity,
+                registry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    DbBulkhead(int readPoolSize, int readQueueCapacity, int writePoolSize, int writeQueueCapacity,
+               MeterRegistry registry) {
+        this.readExecutor = boundedExecutor(READ, readPoolSize, readQueueCapacity, registry);
+        this.writeExecutor = boundedExecutor(WRITE, writePoolSize, writeQueueCapacity, registry);
+    }
+
+    public <T> CompletableFuture<T> read(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(withLogContext(work), readExecutor);
+    }
+
+    public <T> CompletableFuture<T> write(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(withLogContext(work), writeExecutor);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        readExecutor.shutdown();
+        writeExecutor.shutdown();
+        readExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        writeExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // leva o correlation id (e a marca de SQL amostrado) da thread do servlet para a do pool
+    private static <T> Supplier<T> withLogContext(Supplier<T> work) {
+        Map<String, String> context = ThreadContext.getImmutableContext();
+        if (context.isEmpty()) {
+            return work;
+        }
+        return () -> {
+            ThreadContext.putAll(context);
+            try {
+                return work.get();
+            } finally {
+                ThreadContext.clearMap();
+            }
+        };
+    }
+
+    private static ThreadPoolExecutor boundedExecutor(String name, int poolSize, int queueCapacity, MeterRegistry registry) {
+        Counter rejected = Counter.builder("db.executor.rejected")
+                .description("Tasks refused because the executor queue was full")
+                .tag("name", name)
+                .register(registry);
+
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, name + "-" + threads.incrementAndGet()),
+                // fila cheia: falha rapido em vez de rodar na thread do servlet
+                (task, pool) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException(name + " queue is full");
+                });
+
+        Gauge.builder("db.executor.queued", executor, pool -> pool.getQueue().size())
+                .description("Tasks waiting for a database thread")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("db.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Database threads running a task")
+                .tag("name", name)
+                .register(registry);
+        return executor;
+    }
+}
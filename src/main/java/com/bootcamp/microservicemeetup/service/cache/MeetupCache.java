@@ -0,0 +1,40 @@
+package com.bootcamp.microservicemeetup.service.cache;
+
+import com.bootcamp.microservicemeetup.config.CacheConfig;
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Cached reads of a meetup by id. The cached values are detached snapshots shared by
+ * every thread, so they must never leave this class: callers go through
+ * {@link com.bootcamp.microservicemeetup.service.MeetupService}, which hands out a copy
+ * of each read. Writes never start from here; they load the row with
+ * {@link MeetupRepository#findById} in their own transaction.
+ * <p>
+ * Evictions stay on the service methods that change a meetup.
+ */
+@Component
+public class MeetupCache {
+
+    private final MeetupRepository repository;
+
+    public MeetupCache(MeetupRepository repository) {
+        this.repository = repository;
+    }
+
+    // sem a colecao lazy de inscricoes: o snapshot nao depende de sessao
+    @Cacheable(cacheNames = CacheConfig.MEETUPS, key = "#id", unless = "#result == null")
+    public Optional<Meetup> findById(Integer id) {
+        return repository.findById(id).map(Meetup::copy);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.MEETUP_DTOS, key = "#id", unless = "#result == null")
+    public Optional<MeetupDTO> findDTO(Integer id) {
+        return repository.findDTOById(id);
+    }
+}
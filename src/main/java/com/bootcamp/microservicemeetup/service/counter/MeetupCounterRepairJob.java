@@ -0,0 +1,84 @@
+package com.bootcamp.microservicemeetup.service.counter;
+
+import com.bootcamp.microservicemeetup.repository.MeetupCounterRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Reconciles the meetup counters with the registrations, {@code batchSize} meetups per
+ * transaction in id order. Each batch reads the stored and the real counts in one
+ * statement and corrects the difference as a delta through {@link MeetupCounters}, so a
+ * registration committed between the read and the fix is neither lost nor counted twice.
+ * A meetup without counter rows gets its slots created first.
+ */
+@Log4j2
+@Component
+public class MeetupCounterRepairJob {
+
+    private final MeetupCounterRepository repository;
+    private final MeetupCounters counters;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public MeetupCounterRepairJob(MeetupCounterRepository repository,
+                                  MeetupCounters counters,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${meetup.counters.repair.batch-size:500}") int batchSize) {
+        this.repository = repository;
+        this.counters = counters;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${meetup.counters.repair.initial-delay:PT5M}",
+            fixedDelayString = "${meetup.counters.repair.fixed-delay:PT1H}")
+    public void run() {
+        long start = System.currentTimeMillis();
+        int repaired = repair();
+        log.info("Meetup counters checked: {} meetups repaired in {} ms", repaired, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Returns how many meetups had drifted.
+     */
+    public int repair() {
+        int repaired = 0;
+        int[] afterId = {0};
+        while (true) {
+            // [id, registeredCount, confirmedCount, faixas, inscricoes, check-ins]
+            List<Object[]> batch = transactionTemplate.execute(status -> {
+                List<Object[]> rows = repository.findCountersAfter(afterId[0], PageRequest.ofSize(batchSize));
+                for (Object[] row : rows) {
+                    if (number(row[3]) == 0) {
+                        counters.create((Integer) row[0]);
+                    }
+                    counters.add((Integer) row[0],
+                            number(row[4]) - number(row[1]),
+                            number(row[5]) - number(row[2]));
+                }
+                return rows;
+            });
+
+            for (Object[] row : batch) {
+                if (number(row[4]) != number(row[1]) || number(row[5]) != number(row[2])) {
+                    repaired++;
+                }
+            }
+            if (batch.size() < batchSize) {
+                return repaired;
+            }
+            afterId[0] = (Integer) batch.get(batch.size() - 1)[0];
+        }
+    }
+
+    private static long number(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,127 @@
+package com.bootcamp.microservicemeetup.service.counter;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.MeetupCounter;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupCounterRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Registration counters of each meetup ({@code registeredCount} and
+ * {@code confirmedCount}), maintained by deltas: whoever inserts, changes or deletes a
+ * registration adds +1/-1 with a single update in its own transaction, so the counters
+ * commit or roll back together with the rows and nothing is ever recounted on the way.
+ * <p>
+ * The counters live in {@link MeetupCounter} rows, {@link #SLOTS} per meetup, and never
+ * in the meetup row: a delta doesn't lock the meetup, doesn't change its version or
+ * ETag and doesn't evict it from the caches. They are read separately and filled into
+ * the DTOs on every read. {@link MeetupCounterRepairJob} fixes any drift.
+ */
+@Log4j2
+@Component
+public class MeetupCounters {
+
+    public static final int SLOTS = 8;
+
+    // ids por consulta ao somar os contadores de uma lista de meetups
+    private static final int READ_CHUNK = 500;
+
+    private final MeetupCounterRepository repository;
+
+    public MeetupCounters(MeetupCounterRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Creates the zeroed slots of a new meetup, in the transaction that inserts it.
+     */
+    public void create(Integer meetupId) {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            repository.insertSlot(meetupId, slot);
+        }
+    }
+
+    public void add(Integer meetupId, long registered, long confirmed) {
+        if (meetupId == null || (registered == 0 && confirmed == 0)) {
+            return;
+        }
+
+        // faixa aleatoria: inscricoes concorrentes no mesmo meetup raramente disputam a mesma linha
+        int slot = ThreadLocalRandom.current().nextInt(SLOTS);
+        if (repository.add(meetupId, slot, registered, confirmed) == 0) {
+            // meetup sem linhas de contador: o reparo cria as faixas e recalcula a partir das inscricoes
+            log.warn("Meetup {} has no counter rows; delta left to the repair job", meetupId);
+        }
+    }
+
+    /**
+     * Counts newly inserted registrations, one update per meetup.
+     */
+    public void addInserted(Collection<Registration> registrations) {
+        // ordem fixa de ids: dois lotes concorrentes travam os contadores na mesma ordem
+        Map<Integer, long[]> deltas = new TreeMap<>();
+        for (Registration registration : registrations) {
+            Meetup meetup = registration.getMeetup();
+            if (meetup != null && meetup.getId() != null) {
+                long[] delta = deltas.computeIfAbsent(meetup.getId(), id -> new long[2]);
+                delta[0]++;
+                delta[1] += confirmed(registration.getRegistered());
+            }
+        }
+        deltas.forEach((meetupId, delta) -> add(meetupId, delta[0], delta[1]));
+    }
+
+    /**
+     * Sets the current counts on the given DTOs, which must not be shared (cached) instances.
+     */
+    public <T extends Collection<MeetupDTO>> T fill(T meetups) {
+        List<MeetupDTO> pending = new ArrayList<>(READ_CHUNK);
+        for (MeetupDTO meetup : meetups) {
+            pending.add(meetup);
+            if (pending.size() == READ_CHUNK) {
+                fillChunk(pending);
+                pending.clear();
+            }
+        }
+        fillChunk(pending);
+        return meetups;
+    }
+
+    public MeetupDTO fill(MeetupDTO meetup) {
+        fill(List.of(meetup));
+        return meetup;
+    }
+
+    public static long confirmed(Boolean registered) {
+        return Boolean.TRUE.equals(registered) ? 1 : 0;
+    }
+
+    private void fillChunk(List<MeetupDTO> meetups) {
+        if (meetups.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Object[]> sums = new HashMap<>();
+        List<Integer> ids = meetups.stream().map(MeetupDTO::getId).distinct().collect(Collectors.toList());
+        for (Object[] row : repository.sumByMeetupIdIn(ids)) {
+            sums.put((Integer) row[0], row);
+        }
+
+        for (MeetupDTO meetup : meetups) {
+            Object[] row = sums.get(meetup.getId());
+            meetup.setRegisteredCount(row == null ? 0L : ((Number) row[1]).longValue());
+            meetup.setConfirmedCount(row == null ? 0L : ((Number) row[2]).longValue());
+        }
+    }
+}
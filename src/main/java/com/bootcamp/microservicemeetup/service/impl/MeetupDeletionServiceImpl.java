@@ -0,0 +1,107 @@
+package com.bootcamp.microservicemeetup.service.impl;
+
+import com.bootcamp.microservicemeetup.config.CacheConfig;
+import com.bootcamp.microservicemeetup.repository.MeetupCounterRepository;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.service.MeetupDeletionService;
+import com.bootcamp.microservicemeetup.service.search.MeetupSearchIndex;
+import com.bootcamp.microservicemeetup.service.search.RegistrationSearchIndex;
+import com.bootcamp.microservicemeetup.service.seat.SeatCounter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deletes a meetup with set-based statements, without loading any entity. The
+ * registrations go first, {@link #CHUNK_SIZE} ids per transaction, so a meetup with
+ * 100k sign-ups never holds one huge transaction; the meetup row goes last, together
+ * with any registration created while the chunks ran. A failure halfway leaves the
+ * meetup with fewer registrations and the call can simply be repeated.
+ */
+@Log4j2
+@Service
+public class MeetupDeletionServiceImpl implements MeetupDeletionService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private MeetupRepository meetupRepository;
+    private RegistrationRepository registrationRepository;
+    private MeetupCounterRepository meetupCounterRepository;
+    private MeetupSearchIndex meetupSearchIndex;
+    private RegistrationSearchIndex registrationSearchIndex;
+    private SeatCounter seatCounter;
+    private TransactionTemplate transactionTemplate;
+
+    public MeetupDeletionServiceImpl(MeetupRepository meetupRepository,
+                                     RegistrationRepository registrationRepository,
+                                     MeetupCounterRepository meetupCounterRepository,
+                                     MeetupSearchIndex meetupSearchIndex,
+                                     RegistrationSearchIndex registrationSearchIndex,
+                                     SeatCounter seatCounter,
+                                     PlatformTransactionManager transactionManager) {
+        this.meetupRepository = meetupRepository;
+        this.registrationRepository = registrationRepository;
+        this.meetupCounterRepository = meetupCounterRepository;
+        this.meetupSearchIndex = meetupSearchIndex;
+        this.registrationSearchIndex = registrationSearchIndex;
+        this.seatCounter = seatCounter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = {CacheConfig.MEETUPS, CacheConfig.MEETUP_DTOS}, key = "#meetupId", condition = "#meetupId != null", beforeInvocation = true),
+            @CacheEvict(cacheNames = {CacheConfig.MEETUPS, CacheConfig.MEETUP_DTOS}, key = "#meetupId", condition = "#meetupId != null")
+    })
+    public boolean deleteWithRegistrations(Integer meetupId) {
+        if (meetupId == null) {
+            throw new IllegalArgumentException("MeetupId cant not be null");
+        }
+
+        long start = System.nanoTime();
+        long registrations = 0;
+        List<Integer> chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> deleteChunk(meetupId));
+            chunk.forEach(registrationSearchIndex::remove);
+            registrations += chunk.size();
+        } while (chunk.size() == CHUNK_SIZE);
+
+        // inscricoes que chegaram durante os lotes e os contadores saem na mesma transacao do meetup
+        List<Integer> late = new ArrayList<>();
+        boolean deleted = transactionTemplate.execute(status -> {
+            late.addAll(registrationRepository.findIdsByMeetupId(meetupId, Pageable.unpaged()));
+            registrationRepository.deleteByMeetupId(meetupId);
+            meetupCounterRepository.deleteByMeetupId(meetupId);
+            return meetupRepository.bulkDeleteById(meetupId) > 0;
+        });
+        late.forEach(registrationSearchIndex::remove);
+        registrations += late.size();
+
+        meetupSearchIndex.remove(meetupId);
+        seatCounter.evict(meetupId);
+
+        if (deleted) {
+            log.info("Meetup {} deleted with {} registrations in {} ms",
+                    meetupId, registrations, (System.nanoTime() - start) / 1_000_000);
+        }
+        return deleted;
+    }
+
+    private List<Integer> deleteChunk(Integer meetupId) {
+        List<Integer> ids = registrationRepository.findIdsByMeetupId(meetupId, PageRequest.ofSize(CHUNK_SIZE));
+        if (!ids.isEmpty()) {
+            registrationRepository.deleteByIdIn(ids);
+        }
+        return ids;
+    }
+}
@@ -1,30 +1,63 @@
 package com.bootcamp.microservicemeetup.service.impl;
 
+import com.bootcamp.microservicemeetup.config.CacheConfig;
 import com.bootcamp.microservicemeetup.exception.BusinessException;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.MeetupMapper;
+import com.bootcamp.microservicemeetup.model.VersionStamp;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
 import com.bootcamp.microservicemeetup.repository.MeetupRepository;
 import com.bootcamp.microservicemeetup.service.MeetupService;
+import com.bootcamp.microservicemeetup.service.cache.MeetupCache;
+import com.bootcamp.microservicemeetup.service.counter.MeetupCounters;
+import com.bootcamp.microservicemeetup.service.search.MeetupSearchIndex;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class MeetupServiceImpl implements MeetupService {
 
+    private static final int EXPORT_CHUNK = 500;
+
     private MeetupRepository repository;
 
-    public MeetupServiceImpl(MeetupRepository repository) {
+    private MeetupSearchIndex searchIndex;
+
+    private MeetupCache meetupCache;
+
+    private MeetupCounters meetupCounters;
+
+    private TransactionTemplate transactionTemplate;
+
+    public MeetupServiceImpl(MeetupRepository repository, MeetupSearchIndex searchIndex, MeetupCache meetupCache,
+                             MeetupCounters meetupCounters, PlatformTransactionManager transactionManager) {
         this.repository = repository;
+        this.searchIndex = searchIndex;
+        this.meetupCache = meetupCache;
+        this.meetupCounters = meetupCounters;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -32,58 +65,137 @@ public class MeetupServiceImpl implements MeetupService {
 //        if (repository.existsById(meetup.getId())) {
 //            throw new BusinessException("Meetup already created!");
 //        }
-        return repository.save(meetup);
+        // as faixas de contador nascem na mesma transacao do meetup
+        boolean created = meetup.getId() == null;
+        Meetup saved = transactionTemplate.execute(status -> {
+            Meetup inserted = repository.save(meetup);
+            if (created) {
+                meetupCounters.create(inserted.getId());
+            }
+            return inserted;
+        });
+        searchIndex.put(saved);
+        return saved;
     }
 
+    // lido a cada inscricao criada/alterada; cada chamada recebe a sua copia do snapshot
+    // em cache, entao alterar o retorno nao afeta as outras threads
     @Override
     public Optional<Meetup> getMeetupById(Integer id) {
-        return repository.findById(id);
+        return meetupCache.findById(id).map(Meetup::copy);
     }
 
     @Override
-    public Meetup update(Meetup meetup) {
-        return repository.save(meetup);
+    public Optional<MeetupDTO> getMeetupDTOById(Integer id) {
+        // contadores lidos a cada chamada: nao ficam no cache, mas entram no ETag do GET
+        return meetupCache.findDTO(id).map(MeetupDTO::copy).map(meetup -> meetupCounters.fill(meetup));
+    }
+
+    @Override
+    public Optional<VersionStamp> getMeetupVersion(Integer id) {
+        return repository.findVersionById(id);
+    }
+
+    // a instancia editada e sempre a lida do banco nesta transacao, nunca a do cache:
+    // requisicoes concorrentes nao misturam campos, e o @Version detecta quem gravou antes.
+    // O commit acontece dentro do metodo, entao a segunda invalidacao do cache ja e pos-commit
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = {CacheConfig.MEETUPS, CacheConfig.MEETUP_DTOS}, key = "#id", beforeInvocation = true),
+            @CacheEvict(cacheNames = {CacheConfig.MEETUPS, CacheConfig.MEETUP_DTOS}, key = "#id")
+    })
+    public Optional<Meetup> update(Integer id, Consumer<Meetup> changes) {
+        Optional<Meetup> updated = transactionTemplate.execute(status -> repository.findById(id).map(meetup -> {
+            changes.accept(meetup);
+            return repository.saveAndFlush(meetup);
+        }));
+
+        updated.ifPresent(searchIndex::put);
+        return updated;
     }
 
     @Override
     public Page<Meetup> find(Meetup filter, Pageable pageable) {
 
 //        return repository.find( filter.getRegistered(), filter.getEvent(), pageable );
-        Example<Meetup>  example = Example.of(filter,
-                ExampleMatcher
-                        .matching()
-                        .withIgnoreCase()
-                        .withIgnoreNullValues()
-                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
-        return repository.findAll(example,pageable);
+        // o indice de trigramas, quando consegue, troca o like '%x%' por busca por id
+        Example<Meetup> example = toExample(filter);
+        return searchIndex.candidates(filter)
+                .map(ids -> repository.findPage(example, ids, pageable))
+                .orElseGet(() -> repository.findAll(example, pageable));
     }
 
     @Override
-    public List<MeetupDTO> getAll() {
+    public Page<MeetupDTO> findDTO(Meetup filter, Pageable pageable) {
+        Example<Meetup> example = toExample(filter);
+        Page<MeetupDTO> page = searchIndex.candidates(filter)
+                .map(ids -> repository.findDTO(example, ids, pageable))
+                .orElseGet(() -> repository.findDTO(example, pageable));
+        meetupCounters.fill(page.getContent());
+        return page;
+    }
 
-        return repository.findAll().stream().map((meetup) -> {
-            MeetupDTO dto = MeetupDTO.builder()
-                    .id(meetup.getId())
-                    .event(meetup.getEvent())
-                    .description(meetup.getDescription())
-                    .organizer(meetup.getOrganizer())
-                    .meetupDate(meetup.getMeetupDate())
-                    .address(meetup.getAddress())
-                    .build();
+    @Override
+    public Slice<Meetup> findSlice(Meetup filter, Pageable pageable) {
+        Example<Meetup> example = toExample(filter);
+        return searchIndex.candidates(filter)
+                .map(ids -> repository.findSlice(example, ids, pageable))
+                .orElseGet(() -> repository.findSlice(example, pageable));
+    }
+
+    @Override
+    public Slice<Meetup> findAfter(Meetup filter, Integer afterId, int size) {
+        // busca um registro a mais para saber se existe proxima pagina
+        Example<Meetup> example = toExample(filter);
+        List<Meetup> rows = searchIndex.candidates(filter)
+                .map(ids -> repository.findAfter(example, ids, afterId, size + 1))
+                .orElseGet(() -> repository.findAfter(example, afterId, size + 1));
+        boolean hasNext = rows.size() > size;
+
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.ofSize(size), hasNext);
+    }
+
+    @Override
+    public Slice<MeetupDTO> findUpcoming(LocalDate from, LocalDate to, Pageable pageable) {
+        Slice<MeetupDTO> slice = repository.findDTOByMeetupDateBetween(from, to, pageable);
+        meetupCounters.fill(slice.getContent());
+        return slice;
+    }
+
+    @Override
+    public List<MeetupDTO> getAll() {
 
-            return dto;
+        return meetupCounters.fill(repository.findAllDTO());
 
-        }).collect(Collectors.toList());
+    }
 
+    @Override
+    public <T extends Collection<MeetupDTO>> T withCounters(T meetups) {
+        return meetupCounters.fill(meetups);
     }
 
     @Override
-    public void delete(Meetup meetup) {
-        if (meetup == null || meetup.getId() == null) {
-            throw new IllegalArgumentException("MeetupId cant not be null");
-        }
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<MeetupDTO> consumer) {
+        // contadores somados a cada EXPORT_CHUNK meetups, numa consulta por lote
+        List<MeetupDTO> chunk = new ArrayList<>(EXPORT_CHUNK);
+        repository.streamAll(meetup -> {
+            chunk.add(MeetupMapper.toDTO(meetup));
+            if (chunk.size() == EXPORT_CHUNK) {
+                meetupCounters.fill(chunk).forEach(consumer);
+                chunk.clear();
+            }
+        });
+        meetupCounters.fill(chunk).forEach(consumer);
+    }
 
-        this.repository.delete(meetup);
+    private Example<Meetup> toExample(Meetup filter) {
+        return Example.of(filter,
+                ExampleMatcher
+                        .matching()
+                        .withIgnoreCase()
+                        .withIgnoreNullValues()
+                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
     }
 
 
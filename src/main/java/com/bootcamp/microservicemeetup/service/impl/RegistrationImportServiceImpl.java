@@ -0,0 +1,219 @@
+package com.bootcamp.microservicemeetup.service.impl;
+
+import com.bootcamp.microservicemeetup.controller.dto.BulkImportResultDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.DateMapper;
+import com.bootcamp.microservicemeetup.exception.BusinessException;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.service.RegistrationImportService;
+import com.bootcamp.microservicemeetup.service.counter.MeetupCounters;
+import com.bootcamp.microservicemeetup.service.search.RegistrationSearchIndex;
+import com.bootcamp.microservicemeetup.service.seat.SeatCounter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports registrations in chunks: each chunk is validated and deduplicated in memory,
+ * checked against the database with two set queries and inserted in JDBC batches in its
+ * own transaction, so memory stays bounded by the chunk and not by the request.
+ * <p>
+ * Chunks commit one by one, so the result always says what happened to every row read:
+ * a chunk the database still refuses after one retry is counted as rejected, and a row
+ * that can't be parsed stops the import after the rows before it are processed, with
+ * its position in {@link BulkImportResultDTO#getFailedAtRow()}.
+ */
+@Log4j2
+@Service
+public class RegistrationImportServiceImpl implements RegistrationImportService {
+
+    // multiplo de hibernate.jdbc.batch_size
+    static final int CHUNK_SIZE = 1000;
+
+    private RegistrationRepository repository;
+    private MeetupRepository meetupRepository;
+    private RegistrationSearchIndex searchIndex;
+    private SeatCounter seatCounter;
+    private MeetupCounters meetupCounters;
+    private EntityManager entityManager;
+    private Validator validator;
+    private TransactionTemplate transactionTemplate;
+
+    public RegistrationImportServiceImpl(RegistrationRepository repository,
+                                         MeetupRepository meetupRepository,
+                                         RegistrationSearchIndex searchIndex,
+                                         SeatCounter seatCounter,
+                                         MeetupCounters meetupCounters,
+                                         EntityManager entityManager,
+                                         Validator validator,
+                                         PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.meetupRepository = meetupRepository;
+        this.searchIndex = searchIndex;
+        this.seatCounter = seatCounter;
+        this.meetupCounters = meetupCounters;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public BulkImportResultDTO importAll(Iterator<RegistrationDTO> registrations) {
+        long start = System.nanoTime();
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        Set<String> seen = new HashSet<>();
+        List<RegistrationDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        while (true) {
+            RegistrationDTO dto;
+            try {
+                if (!registrations.hasNext()) {
+                    break;
+                }
+                dto = registrations.next();
+            } catch (RuntimeException e) {
+                // o restante do corpo nao e confiavel: para aqui, mas grava o que ja foi lido
+                log.warn("Registration import stopped at row {}: {}", result.getReceived() + 1, e.getMessage());
+                result.setFailedAtRow(result.getReceived() + 1);
+                result.setParseError(e.getMessage());
+                break;
+            }
+            result.setReceived(result.getReceived() + 1);
+
+            if (!isValid(dto)) {
+                result.setInvalid(result.getInvalid() + 1);
+            } else if (!seen.add(key(dto.getEmail(), dto.getMeetup().getId()))) {
+                result.setDuplicated(result.getDuplicated() + 1);
+            } else {
+                chunk.add(dto);
+            }
+
+            if (chunk.size() == CHUNK_SIZE) {
+                insertChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, result);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        result.setElapsedMillis(elapsedMillis);
+        result.setRowsPerSecond(result.getCreated() * 1000.0 / Math.max(elapsedMillis, 1));
+        return result;
+    }
+
+    private void insertChunk(List<RegistrationDTO> chunk, BulkImportResultDTO result) {
+        List<Registration> saved;
+        try {
+            saved = insertReservingSeats(chunk, result);
+        } catch (DataIntegrityViolationException e) {
+            // outra requisicao inscreveu alguem do lote entre a checagem e o insert;
+            // a nova tentativa rele o que ja existe e pula essas linhas
+            try {
+                saved = insertReservingSeats(chunk, result);
+            } catch (DataIntegrityViolationException again) {
+                // recusado de novo: o lote fica de fora, mas os lotes seguintes continuam
+                log.warn("Registration import chunk of {} rows rejected twice: {}", chunk.size(), again.getMessage());
+                result.setRejected(result.getRejected() + chunk.size());
+                return;
+            }
+        }
+        saved.forEach(searchIndex::put);
+    }
+
+    private List<Registration> insertReservingSeats(List<RegistrationDTO> chunk, BulkImportResultDTO result) {
+        List<Integer> reserved = new ArrayList<>();
+        try {
+            return transactionTemplate.execute(status -> insert(chunk, result, reserved));
+        } catch (RuntimeException e) {
+            // nada foi gravado: devolve as vagas reservadas por esta tentativa
+            reserved.forEach(seatCounter::release);
+            throw e;
+        }
+    }
+
+    private List<Registration> insert(List<RegistrationDTO> chunk, BulkImportResultDTO result, List<Integer> reserved) {
+        Map<Integer, Integer> capacities = new HashMap<>();
+        meetupRepository.findIdAndCapacityByIdIn(chunk.stream().map(dto -> dto.getMeetup().getId()).collect(Collectors.toSet()))
+                .forEach(row -> capacities.put((Integer) row[0], (Integer) row[1]));
+
+        Set<String> existing = repository
+                .findEmailAndMeetupIdByEmailIn(chunk.stream().map(RegistrationDTO::getEmail).collect(Collectors.toSet()))
+                .stream()
+                .map(row -> key((String) row[0], (Integer) row[1]))
+                .collect(Collectors.toSet());
+
+        long invalid = 0;
+        long alreadyRegistered = 0;
+        long full = 0;
+        List<Registration> entities = new ArrayList<>(chunk.size());
+        for (RegistrationDTO dto : chunk) {
+            Integer meetupId = dto.getMeetup().getId();
+            if (!capacities.containsKey(meetupId)) {
+                invalid++;
+            } else if (existing.contains(key(dto.getEmail(), meetupId))) {
+                alreadyRegistered++;
+            } else if (!seatCounter.tryReserve(meetupId, capacities.get(meetupId))) {
+                full++;
+            } else {
+                reserved.add(meetupId);
+                entities.add(Registration.builder()
+                        .personName(dto.getPersonName())
+                        .email(dto.getEmail())
+                        .dateOfRegistration(DateMapper.toLocalDate(dto.getDateOfRegistration()))
+                        .registered(dto.getRegistered())
+                        .meetup(meetupRepository.getById(meetupId))
+                        .build());
+            }
+        }
+
+        List<Registration> saved = repository.saveAll(entities);
+        repository.flush();
+        meetupCounters.addInserted(saved);
+        entityManager.clear();
+
+        // so contabiliza quando o chunk foi de fato gravado (o retry recalcula tudo)
+        result.setInvalid(result.getInvalid() + invalid);
+        result.setAlreadyRegistered(result.getAlreadyRegistered() + alreadyRegistered);
+        result.setFull(result.getFull() + full);
+        result.setCreated(result.getCreated() + saved.size());
+        return saved;
+    }
+
+    private boolean isValid(RegistrationDTO dto) {
+        return dto != null
+                && dto.getMeetup() != null
+                && dto.getMeetup().getId() != null
+                && validator.validate(dto).isEmpty()
+                && isValidDate(dto.getDateOfRegistration());
+    }
+
+    private static boolean isValidDate(String date) {
+        try {
+            DateMapper.toLocalDate(date);
+            return true;
+        } catch (BusinessException e) {
+            return false;
+        }
+    }
+
+    private static String key(String email, Integer meetupId) {
+        return meetupId + ":" + email;
+    }
+}
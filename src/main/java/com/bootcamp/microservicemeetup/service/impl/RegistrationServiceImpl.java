@@ -2,16 +2,29 @@ package com.bootcamp.microservicemeetup.service.impl;
 
 import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
 import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.RegistrationMapper;
 import com.bootcamp.microservicemeetup.exception.BusinessException;
+import com.bootcamp.microservicemeetup.model.VersionStamp;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
 import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
 import com.bootcamp.microservicemeetup.service.RegistrationService;
+import com.bootcamp.microservicemeetup.service.counter.MeetupCounters;
+import com.bootcamp.microservicemeetup.service.search.RegistrationSearchIndex;
+import com.bootcamp.microservicemeetup.service.seat.SeatCounter;
+import com.bootcamp.microservicemeetup.service.seat.Waitlist;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,18 +32,73 @@ public class RegistrationServiceImpl implements RegistrationService {
 
     RegistrationRepository repository;
 
-    public RegistrationServiceImpl(RegistrationRepository repository) {
+    RegistrationSearchIndex searchIndex;
+
+    SeatCounter seatCounter;
+
+    Waitlist waitlist;
+
+    MeetupCounters meetupCounters;
+
+    public RegistrationServiceImpl(RegistrationRepository repository, RegistrationSearchIndex searchIndex,
+                                   SeatCounter seatCounter, Waitlist waitlist, MeetupCounters meetupCounters) {
 
         this.repository = repository;
+        this.searchIndex = searchIndex;
+        this.seatCounter = seatCounter;
+        this.waitlist = waitlist;
+        this.meetupCounters = meetupCounters;
     }
 
+    // insert e contadores do meetup na mesma transacao
     @Override
+    @Transactional
     public Registration save(Registration registration) {
-        if (repository.existsByEmailAndMeetup(registration.getEmail(), registration.getMeetup())) {
-            throw new BusinessException("Registration already created");
+        // a vaga e reservada em memoria antes do insert e devolvida se ele falhar;
+        // sem vaga, a inscricao entra no fim da fila de espera
+        Meetup meetup = registration.getMeetup();
+        boolean seated = tryReserveSeat(meetup);
+        if (!seated) {
+            registration.setWaitlistPosition(waitlist.nextPosition(meetup.getId()));
         }
 
-        return repository.save(registration);
+        // o indice unico (email, id_meetup) detecta a duplicidade no proprio insert,
+        // sem o select previo e sem a janela de corrida entre checar e inserir
+        Registration saved;
+        try {
+            saved = repository.saveAndFlush(registration);
+            meetupCounters.add(meetup == null ? null : meetup.getId(), 1, MeetupCounters.confirmed(saved.getRegistered()));
+        } catch (DataIntegrityViolationException e) {
+            if (seated) {
+                releaseSeat(meetup);
+            }
+            if (isDuplicateRegistration(e)) {
+                throw new BusinessException("Registration already created");
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            if (seated) {
+                releaseSeat(meetup);
+            }
+            throw e;
+        }
+        // daqui em diante quem devolve a vaga e o rollback, inclusive o de uma transacao externa
+        if (seated) {
+            onCompletion(() -> { }, () -> releaseSeat(meetup));
+        }
+
+        // um cancelamento pode ter liberado a vaga entre a reserva falhar e o insert
+        if (!seated && seatCounter.tryReserve(meetup.getId(), meetup.getCapacity())) {
+            onCompletion(() -> { }, () -> releaseSeat(meetup));
+            Optional<Registration> promoted = waitlist.promoteHead(meetup.getId());
+            if (!promoted.isPresent()) {
+                onCompletion(() -> releaseSeat(meetup), () -> { });
+            } else if (promoted.get().getId().equals(saved.getId())) {
+                saved = promoted.get();
+            }
+        }
+        indexAfterCommit(saved);
+        return saved;
     }
 
     @Override
@@ -39,60 +107,130 @@ public class RegistrationServiceImpl implements RegistrationService {
     }
 
     @Override
+    public Optional<RegistrationDTO> getRegistrationDTOById(Integer id) {
+        return this.repository.findDTOById(id);
+    }
+
+    @Override
+    public Optional<VersionStamp> getRegistrationVersion(Integer id) {
+        return this.repository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional
     public void delete(Registration registration) {
         if (registration == null || registration.getId() == null) {
             throw new IllegalArgumentException("Registration id cannot be null");
         }
 
+        boolean seated = registration.getWaitlistPosition() == null;
         this.repository.delete(registration);
+        onCompletion(() -> searchIndex.remove(registration.getId()), () -> { });
+
+        // a vaga vai para o primeiro da fila na mesma transacao do delete
+        Meetup meetup = registration.getMeetup();
+        if (meetup != null) {
+            meetupCounters.add(meetup.getId(), -1, -MeetupCounters.confirmed(registration.getRegistered()));
+        }
+        if (seated && meetup != null && meetup.getId() != null) {
+            freeSeat(meetup.getId());
+        }
     }
 
     @Override
+    @Transactional
     public Registration update(Registration registration) {
         if (registration == null || registration.getId() == null) {
             throw new IllegalArgumentException("Registration id cannot be null");
         }
 
-        return this.repository.save(registration);
+        // trocar de meetup ocupa uma vaga no novo e libera a do anterior
+        Integer previousMeetupId = repository.findMeetupIdById(registration.getId()).orElse(null);
+        long wasConfirmed = MeetupCounters.confirmed(repository.findRegisteredById(registration.getId()).orElse(null));
+        Meetup meetup = registration.getMeetup();
+        boolean moved = meetup != null && meetup.getId() != null && !meetup.getId().equals(previousMeetupId);
+        boolean wasSeated = registration.getWaitlistPosition() == null;
+        if (moved) {
+            if (!tryReserveSeat(meetup)) {
+                throw new BusinessException("Meetup is full");
+            }
+            registration.setWaitlistPosition(null);
+        }
+
+        Registration updated;
+        try {
+            updated = this.repository.save(registration);
+        } catch (RuntimeException e) {
+            if (moved) {
+                releaseSeat(meetup);
+            }
+            throw e;
+        }
+        if (moved) {
+            onCompletion(() -> { }, () -> releaseSeat(meetup));
+            if (previousMeetupId != null && wasSeated) {
+                freeSeat(previousMeetupId);
+            }
+        }
+        updateCounters(previousMeetupId, wasConfirmed, updated);
+        indexAfterCommit(updated);
+        return updated;
     }
 
     @Override
     public Page<Registration> find(Registration filter, Pageable pageRequest) {
-        Example<Registration>  example = Example.of(filter,
-                ExampleMatcher
-                        .matching()
-                        .withIgnoreCase()
-                        .withIgnoreNullValues()
-                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
-        return repository.findAll(example,pageRequest);
+        // o indice de trigramas, quando consegue, troca o like '%x%' por busca por id
+        Example<Registration> example = toExample(filter);
+        return searchIndex.candidates(filter)
+                .map(ids -> repository.findPage(example, ids, pageRequest))
+                .orElseGet(() -> repository.findAll(example, pageRequest));
+    }
+
+    @Override
+    public Page<RegistrationDTO> findDTO(Registration filter, Pageable pageRequest) {
+        Example<Registration> example = toExample(filter);
+        return searchIndex.candidates(filter)
+                .map(ids -> repository.findDTO(example, ids, pageRequest))
+                .orElseGet(() -> repository.findDTO(example, pageRequest));
+    }
+
+    @Override
+    public Slice<Registration> findSlice(Registration filter, Pageable pageRequest) {
+        Example<Registration> example = toExample(filter);
+        return searchIndex.candidates(filter)
+                .map(ids -> repository.findSlice(example, ids, pageRequest))
+                .orElseGet(() -> repository.findSlice(example, pageRequest));
+    }
+
+    @Override
+    public Slice<Registration> findAfter(Registration filter, Integer afterId, int size) {
+        // busca um registro a mais para saber se existe proxima pagina
+        Example<Registration> example = toExample(filter);
+        List<Registration> rows = searchIndex.candidates(filter)
+                .map(ids -> repository.findAfter(example, ids, afterId, size + 1))
+                .orElseGet(() -> repository.findAfter(example, afterId, size + 1));
+        boolean hasNext = rows.size() > size;
+
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.ofSize(size), hasNext);
     }
 
     @Override
     public List<RegistrationDTO> getAll() {
 
-        return repository.findAll().stream().map((registration) -> {
-            RegistrationDTO dto = RegistrationDTO.builder()
-                    .id(registration.getId())
-                    .personName(registration.getPersonName())
-                    .email(registration.getEmail())
-                    .dateOfRegistration(registration.getDateOfRegistration())
-                    .registered(registration.getRegistered())
-                    .meetup(
-                            MeetupDTO.builder()
-                                    .id(registration.getMeetup().getId())
-                                    .event(registration.getMeetup().getEvent())
-                                    .description(registration.getMeetup().getDescription())
-                                    .organizer(registration.getMeetup().getOrganizer())
-                                    .meetupDate(registration.getMeetup().getMeetupDate())
-                                    .address(registration.getMeetup().getAddress())
-                                    .build()
-                    )
-                    .build();
+        return repository.findAllDTO();
 
-            return dto;
+    }
 
-        }).collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<RegistrationDTO> consumer) {
+        repository.streamAll(registration -> consumer.accept(RegistrationMapper.toDTO(registration)));
+    }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportByMeetup(Integer meetupId, Consumer<RegistrationDTO> consumer) {
+        repository.streamByMeetupId(meetupId, consumer);
     }
 
 
@@ -100,4 +238,74 @@ public class RegistrationServiceImpl implements RegistrationService {
     public Page<Registration> getRegistrationsByMeetup(Meetup meetup, Pageable pageable) {
         return repository.findByMeetup(meetup, pageable);
     }
+
+    // troca de meetup move a inscricao entre os contadores; senao so o check-in pode mudar
+    private void updateCounters(Integer previousMeetupId, long wasConfirmed, Registration updated) {
+        Integer meetupId = updated.getMeetup() == null ? null : updated.getMeetup().getId();
+        long confirmed = MeetupCounters.confirmed(updated.getRegistered());
+        if (Objects.equals(previousMeetupId, meetupId)) {
+            meetupCounters.add(meetupId, 0, confirmed - wasConfirmed);
+        } else {
+            meetupCounters.add(previousMeetupId, -1, -wasConfirmed);
+            meetupCounters.add(meetupId, 1, confirmed);
+        }
+    }
+
+    private boolean tryReserveSeat(Meetup meetup) {
+        return meetup == null || meetup.getId() == null
+                || seatCounter.tryReserve(meetup.getId(), meetup.getCapacity());
+    }
+
+    private void releaseSeat(Meetup meetup) {
+        if (meetup != null && meetup.getId() != null) {
+            seatCounter.release(meetup.getId());
+        }
+    }
+
+    // promove o primeiro da fila; sem fila, a vaga volta ao contador depois do commit
+    private void freeSeat(Integer meetupId) {
+        if (waitlist.hasEntries(meetupId) && waitlist.promoteHead(meetupId).isPresent()) {
+            return;
+        }
+        onCompletion(() -> seatCounter.release(meetupId), () -> { });
+    }
+
+    // o indice so enxerga a linha depois do commit; um rollback o deixa como estava
+    private void indexAfterCommit(Registration registration) {
+        onCompletion(() -> searchIndex.put(registration), () -> { });
+    }
+
+    private void onCompletion(Runnable committed, Runnable rolledBack) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                (status == STATUS_COMMITTED ? committed : rolledBack).run();
+            }
+        });
+    }
+
+    private boolean isDuplicateRegistration(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+                return constraintName != null
+                        && constraintName.toLowerCase().contains(Registration.UNIQUE_EMAIL_MEETUP);
+            }
+        }
+        return false;
+    }
+
+    private Example<Registration> toExample(Registration filter) {
+        return Example.of(filter,
+                ExampleMatcher
+                        .matching()
+                        .withIgnoreCase()
+                        .withIgnoreNullValues()
+                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+    }
 }
@@ -0,0 +1,14 @@
+package com.bootcamp.microservicemeetup.service.ingest;
+
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+class IngestRequest {
+
+    private String ticket;
+
+    private RegistrationDTO registration;
+}
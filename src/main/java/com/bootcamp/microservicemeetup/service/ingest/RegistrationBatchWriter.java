@@ -0,0 +1,215 @@
+package com.bootcamp.microservicemeetup.service.ingest;
+
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationTicketDTO;
+import com.bootcamp.microservicemeetup.controller.mapper.DateMapper;
+import com.bootcamp.microservicemeetup.exception.BusinessException;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.service.MeetupService;
+import com.bootcamp.microservicemeetup.service.RegistrationService;
+import com.bootcamp.microservicemeetup.service.counter.MeetupCounters;
+import com.bootcamp.microservicemeetup.service.search.RegistrationSearchIndex;
+import com.bootcamp.microservicemeetup.service.seat.SeatCounter;
+import com.bootcamp.microservicemeetup.service.seat.Waitlist;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writes a micro-batch of queued registrations in one transaction, with the same rules
+ * as {@link RegistrationService#save}: duplicates are refused, a full meetup puts the
+ * registration on its waitlist. If the batch can't be committed as a whole (usually a
+ * duplicate that raced in), each registration is saved on its own so only the
+ * offending ones fail.
+ */
+@Log4j2
+@Component
+public class RegistrationBatchWriter {
+
+    private RegistrationRepository repository;
+    private MeetupRepository meetupRepository;
+    private RegistrationService registrationService;
+    private MeetupService meetupService;
+    private SeatCounter seatCounter;
+    private Waitlist waitlist;
+    private MeetupCounters meetupCounters;
+    private RegistrationSearchIndex searchIndex;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+
+    public RegistrationBatchWriter(RegistrationRepository repository,
+                                   MeetupRepository meetupRepository,
+                                   RegistrationService registrationService,
+                                   MeetupService meetupService,
+                                   SeatCounter seatCounter,
+                                   Waitlist waitlist,
+                                   MeetupCounters meetupCounters,
+                                   RegistrationSearchIndex searchIndex,
+                                   EntityManager entityManager,
+                                   PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.meetupRepository = meetupRepository;
+        this.registrationService = registrationService;
+        this.meetupService = meetupService;
+        this.seatCounter = seatCounter;
+        this.waitlist = waitlist;
+        this.meetupCounters = meetupCounters;
+        this.searchIndex = searchIndex;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public List<RegistrationTicketDTO> write(List<IngestRequest> batch) {
+        List<Integer> reserved = new ArrayList<>();
+        List<Registration> saved = new ArrayList<>();
+        List<RegistrationTicketDTO> results;
+        try {
+            results = transactionTemplate.execute(status -> insert(batch, reserved, saved));
+        } catch (RuntimeException e) {
+            reserved.forEach(seatCounter::release);
+            return batch.stream().map(this::saveOne).collect(Collectors.toList());
+        }
+
+        saved.forEach(searchIndex::put);
+        saved.stream()
+                .filter(registration -> registration.getWaitlistPosition() != null)
+                .map(registration -> registration.getMeetup().getId())
+                .distinct()
+                .forEach(this::promoteIfSeatFreed);
+        return results;
+    }
+
+    private List<RegistrationTicketDTO> insert(List<IngestRequest> batch, List<Integer> reserved, List<Registration> saved) {
+        Map<Integer, Integer> capacities = new HashMap<>();
+        meetupRepository.findIdAndCapacityByIdIn(batch.stream().map(this::meetupId).collect(Collectors.toSet()))
+                .forEach(row -> capacities.put((Integer) row[0], (Integer) row[1]));
+
+        Set<String> taken = repository
+                .findEmailAndMeetupIdByEmailIn(batch.stream().map(request -> request.getRegistration().getEmail()).collect(Collectors.toSet()))
+                .stream()
+                .map(row -> key((String) row[0], (Integer) row[1]))
+                .collect(Collectors.toSet());
+
+        Map<Integer, Long> nextPositions = new HashMap<>();
+        List<RegistrationTicketDTO> results = new ArrayList<>(batch.size());
+        List<Registration> entities = new ArrayList<>(batch.size());
+        for (IngestRequest request : batch) {
+            RegistrationDTO dto = request.getRegistration();
+            Integer meetupId = meetupId(request);
+
+            if (!capacities.containsKey(meetupId)) {
+                results.add(failed(request, "meetup id doesn't exist"));
+                continue;
+            }
+            if (!taken.add(key(dto.getEmail(), meetupId))) {
+                results.add(failed(request, "Registration already created"));
+                continue;
+            }
+
+            Long position = null;
+            if (seatCounter.tryReserve(meetupId, capacities.get(meetupId))) {
+                reserved.add(meetupId);
+            } else {
+                position = nextPositions.compute(meetupId,
+                        (id, last) -> last == null ? waitlist.nextPosition(id) : last + 1);
+            }
+
+            entities.add(toEntity(dto, meetupRepository.getById(meetupId), position));
+            results.add(null);
+        }
+
+        List<Registration> inserted = repository.saveAll(entities);
+        repository.flush();
+        meetupCounters.addInserted(inserted);
+        entityManager.clear();
+        saved.addAll(inserted);
+
+        // preenche os resultados das linhas gravadas, na ordem da fila
+        int next = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, done(batch.get(i), inserted.get(next++)));
+            }
+        }
+        return results;
+    }
+
+    private RegistrationTicketDTO saveOne(IngestRequest request) {
+        try {
+            Optional<Meetup> meetup = meetupService.getMeetupById(meetupId(request));
+            if (!meetup.isPresent()) {
+                return failed(request, "meetup id doesn't exist");
+            }
+            return done(request, registrationService.save(toEntity(request.getRegistration(), meetup.get(), null)));
+        } catch (BusinessException e) {
+            return failed(request, e.getMessage());
+        } catch (RuntimeException e) {
+            // qualquer outro erro da linha (valor grande demais, banco) falha so este ticket;
+            // os demais seguem e todos os resultados sao publicados
+            log.error("Registration of ticket {} could not be saved", request.getTicket(), e);
+            return failed(request, "registration could not be saved");
+        }
+    }
+
+    // mesmo cuidado do save sincrono: uma vaga pode ter sido liberada enquanto o lote entrava na fila
+    private void promoteIfSeatFreed(Integer meetupId) {
+        Integer capacity = meetupRepository.findIdAndCapacityByIdIn(List.of(meetupId)).stream()
+                .map(row -> (Integer) row[1])
+                .findFirst()
+                .orElse(null);
+
+        if (seatCounter.tryReserve(meetupId, capacity) && !waitlist.promoteHead(meetupId).isPresent()) {
+            seatCounter.release(meetupId);
+        }
+    }
+
+    private Registration toEntity(RegistrationDTO dto, Meetup meetup, Long waitlistPosition) {
+        return Registration.builder()
+                .personName(dto.getPersonName())
+                .email(dto.getEmail())
+                .dateOfRegistration(DateMapper.toLocalDate(dto.getDateOfRegistration()))
+                .registered(dto.getRegistered())
+                .meetup(meetup)
+                .waitlistPosition(waitlistPosition)
+                .build();
+    }
+
+    private Integer meetupId(IngestRequest request) {
+        return request.getRegistration().getMeetup().getId();
+    }
+
+    private static RegistrationTicketDTO done(IngestRequest request, Registration registration) {
+        return RegistrationTicketDTO.builder()
+                .ticket(request.getTicket())
+                .status(RegistrationTicketDTO.DONE)
+                .registrationId(registration.getId())
+                .waitlistPosition(registration.getWaitlistPosition())
+                .build();
+    }
+
+    private static RegistrationTicketDTO failed(IngestRequest request, String message) {
+        return RegistrationTicketDTO.builder()
+                .ticket(request.getTicket())
+                .status(RegistrationTicketDTO.FAILED)
+                .message(message)
+                .build();
+    }
+
+    private static String key(String email, Integer meetupId) {
+        return meetupId + ":" + email;
+    }
+}
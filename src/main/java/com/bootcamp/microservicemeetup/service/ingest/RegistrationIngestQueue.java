@@ -0,0 +1,136 @@
+package com.bootcamp.microservicemeetup.service.ingest;
+
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationTicketDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue between {@code POST /api/registration/async} and the database. The
+ * request thread only enqueues; one worker drains the queue in micro-batches of up to
+ * {@code batchSize} registrations, each written in a single transaction by
+ * {@link RegistrationBatchWriter}. A full queue refuses new work instead of growing.
+ */
+@Log4j2
+@Component
+public class RegistrationIngestQueue {
+
+    private final RegistrationBatchWriter writer;
+    private final BlockingQueue<IngestRequest> queue;
+    private final int batchSize;
+
+    // situacao de cada ticket, mantida por uma hora depois da ultima mudanca
+    private final Cache<String, RegistrationTicketDTO> tickets = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "registration-ingest"));
+
+    private volatile boolean running;
+
+    public RegistrationIngestQueue(RegistrationBatchWriter writer,
+                                   @Value("${registration.async.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${registration.async.batch-size:200}") int batchSize) {
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Enqueues the registration; empty when the queue is full.
+     */
+    public Optional<RegistrationTicketDTO> submit(RegistrationDTO registration) {
+        String ticket = UUID.randomUUID().toString();
+        RegistrationTicketDTO queued = RegistrationTicketDTO.builder()
+                .ticket(ticket)
+                .status(RegistrationTicketDTO.QUEUED)
+                .build();
+
+        // registra antes de enfileirar para o worker nunca concluir um ticket desconhecido
+        tickets.put(ticket, queued);
+        if (!queue.offer(new IngestRequest(ticket, registration))) {
+            tickets.invalidate(ticket);
+            return Optional.empty();
+        }
+        return Optional.of(queued);
+    }
+
+    public Optional<RegistrationTicketDTO> status(String ticket) {
+        return Optional.ofNullable(tickets.getIfPresent(ticket));
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker.submit(() -> {
+            while (running || !queue.isEmpty()) {
+                try {
+                    drain(500, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Registration ingest batch failed", e);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // para de esperar novos itens, mas grava o que ja foi aceito
+        running = false;
+        worker.shutdown();
+        if (!worker.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Registration ingest stopped with {} registrations still queued", queue.size());
+            worker.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes one micro-batch: waits up to {@code timeout} for the first registration and
+     * takes whatever else is already queued, up to the batch size.
+     */
+    void drain(long timeout, TimeUnit unit) throws InterruptedException {
+        IngestRequest first = queue.poll(timeout, unit);
+        if (first == null) {
+            return;
+        }
+
+        List<IngestRequest> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+
+        try {
+            writer.write(batch).forEach(result -> tickets.put(result.getTicket(), result));
+        } catch (RuntimeException e) {
+            batch.forEach(request -> tickets.put(request.getTicket(), RegistrationTicketDTO.builder()
+                    .ticket(request.getTicket())
+                    .status(RegistrationTicketDTO.FAILED)
+                    .message("Registration could not be saved")
+                    .build()));
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.bootcamp.microservicemeetup.service.search;
+
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+@Component
+public class MeetupSearchIndex extends TrigramIndex<Meetup> {
+
+    public MeetupSearchIndex() {
+        super(Meetup::getId, fields());
+    }
+
+    private static Map<String, Function<Meetup, String>> fields() {
+        Map<String, Function<Meetup, String>> fields = new LinkedHashMap<>();
+        fields.put("event", Meetup::getEvent);
+        fields.put("organizer", Meetup::getOrganizer);
+        fields.put("description", Meetup::getDescription);
+        fields.put("address", Meetup::getAddress);
+        return fields;
+    }
+}
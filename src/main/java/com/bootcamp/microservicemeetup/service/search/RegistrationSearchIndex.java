@@ -0,0 +1,23 @@
+package com.bootcamp.microservicemeetup.service.search;
+
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+@Component
+public class RegistrationSearchIndex extends TrigramIndex<Registration> {
+
+    public RegistrationSearchIndex() {
+        super(Registration::getId, fields());
+    }
+
+    private static Map<String, Function<Registration, String>> fields() {
+        Map<String, Function<Registration, String>> fields = new LinkedHashMap<>();
+        fields.put("personName", Registration::getPersonName);
+        fields.put("email", Registration::getEmail);
+        return fields;
+    }
+}
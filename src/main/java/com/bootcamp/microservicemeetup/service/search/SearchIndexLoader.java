@@ -0,0 +1,48 @@
+package com.bootcamp.microservicemeetup.service.search;
+
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Fills the search indexes once the application is up. Rows written meanwhile are
+ * already indexed by the services, so the load only adds ids it hasn't seen.
+ */
+@Log4j2
+@Component
+public class SearchIndexLoader {
+
+    private final MeetupRepository meetupRepository;
+    private final RegistrationRepository registrationRepository;
+    private final MeetupSearchIndex meetupIndex;
+    private final RegistrationSearchIndex registrationIndex;
+
+    public SearchIndexLoader(MeetupRepository meetupRepository,
+                             RegistrationRepository registrationRepository,
+                             MeetupSearchIndex meetupIndex,
+                             RegistrationSearchIndex registrationIndex) {
+        this.meetupRepository = meetupRepository;
+        this.registrationRepository = registrationRepository;
+        this.meetupIndex = meetupIndex;
+        this.registrationIndex = registrationIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long start = System.currentTimeMillis();
+
+        meetupRepository.streamAll(meetupIndex::putIfAbsent);
+        meetupIndex.markReady();
+
+        registrationRepository.streamAll(registrationIndex::putIfAbsent);
+        registrationIndex.markReady();
+
+        log.info("Search indexes loaded: {} meetups, {} registrations in {} ms",
+                meetupIndex.size(), registrationIndex.size(), System.currentTimeMillis() - start);
+    }
+}
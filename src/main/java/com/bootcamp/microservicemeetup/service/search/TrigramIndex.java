@@ -0,0 +1,226 @@
+package com.bootcamp.microservicemeetup.service.search;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory trigram index over some string fields of an entity. Answers the
+ * case-insensitive CONTAINING filters of the find services with the exact set of
+ * matching ids, so the database only has to read those rows by primary key instead
+ * of scanning the table with {@code lower(col) like '%x%'}.
+ * <p>
+ * Search terms shorter than three characters cannot be answered by trigrams and
+ * leave that field unrestricted. Until {@link #markReady()} is called (initial load
+ * finished) the index does not restrict anything.
+ */
+public class TrigramIndex<T> {
+
+    static final int GRAM_SIZE = 3;
+
+    /** Above this many candidates an IN list is not cheaper than the plain query. */
+    public static final int MAX_CANDIDATES = 1000;
+
+    private final Function<T, Integer> idOf;
+    private final Map<String, Function<T, String>> fields;
+
+    // campo -> trigrama -> ids
+    private final Map<String, Map<String, Set<Integer>>> postings = new HashMap<>();
+    // id -> campo -> valor indexado (minusculo)
+    private final Map<Integer, Map<String, String>> values = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public TrigramIndex(Function<T, Integer> idOf, Map<String, Function<T, String>> fields) {
+        this.idOf = idOf;
+        this.fields = new LinkedHashMap<>(fields);
+        this.fields.keySet().forEach(field -> postings.put(field, new HashMap<>()));
+    }
+
+    /**
+     * Indexes or re-indexes {@code entity}.
+     */
+    public void put(T entity) {
+        Integer id = entity == null ? null : idOf.apply(entity);
+        if (id == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            index(id, entity);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes {@code entity} only if its id is not indexed yet. Used by the initial
+     * load so a row read from an older snapshot never overwrites a live update.
+     */
+    public void putIfAbsent(T entity) {
+        Integer id = entity == null ? null : idOf.apply(entity);
+        if (id == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (!values.containsKey(id)) {
+                index(id, entity);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer id) {
+        if (id == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void markReady() {
+        this.ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return values.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids whose indexed fields contain (ignoring case) every non-null indexed field of
+     * {@code filter}. Empty when the index can't restrict the search: not loaded yet,
+     * no usable search term, or too many candidates to be worth an IN list.
+     */
+    public Optional<Set<Integer>> candidates(T filter) {
+        if (!ready || filter == null) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Integer> result = null;
+            for (Map.Entry<String, Function<T, String>> field : fields.entrySet()) {
+                String term = normalize(field.getValue().apply(filter));
+                if (term == null || term.length() < GRAM_SIZE) {
+                    continue;
+                }
+
+                Set<Integer> matches = matches(field.getKey(), term, result);
+                if (matches.isEmpty()) {
+                    return Optional.of(Collections.emptySet());
+                }
+                result = matches;
+            }
+
+            if (result == null || result.size() > MAX_CANDIDATES) {
+                return Optional.empty();
+            }
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Integer> matches(String field, String term, Set<Integer> restrictTo) {
+        Map<String, Set<Integer>> fieldPostings = postings.get(field);
+
+        // comeca pela lista de postings mais curta e confirma no valor indexado,
+        // pois trigramas em comum nao garantem a substring inteira
+        Set<Integer> smallest = null;
+        for (String gram : grams(term)) {
+            Set<Integer> ids = fieldPostings.getOrDefault(gram, Collections.emptySet());
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+
+        Set<Integer> matches = new HashSet<>();
+        for (Integer id : smallest) {
+            if (restrictTo != null && !restrictTo.contains(id)) {
+                continue;
+            }
+            String value = values.get(id).get(field);
+            if (value != null && value.contains(term)) {
+                matches.add(id);
+            }
+        }
+        return matches;
+    }
+
+    private void index(Integer id, T entity) {
+        Map<String, String> indexed = new HashMap<>();
+        for (Map.Entry<String, Function<T, String>> field : fields.entrySet()) {
+            String value = normalize(field.getValue().apply(entity));
+            if (value == null) {
+                continue;
+            }
+            indexed.put(field.getKey(), value);
+
+            Map<String, Set<Integer>> fieldPostings = postings.get(field.getKey());
+            for (String gram : grams(value)) {
+                fieldPostings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+            }
+        }
+        values.put(id, indexed);
+    }
+
+    private void removeLocked(Integer id) {
+        Map<String, String> indexed = values.remove(id);
+        if (indexed == null) {
+            return;
+        }
+
+        for (Map.Entry<String, String> field : indexed.entrySet()) {
+            Map<String, Set<Integer>> fieldPostings = postings.get(field.getKey());
+            for (String gram : grams(field.getValue())) {
+                Set<Integer> ids = fieldPostings.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        fieldPostings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,69 @@
+package com.bootcamp.microservicemeetup.service.seat;
+
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Seats taken per meetup, kept in memory so a sign-up for a popular meetup costs a
+ * compare-and-set instead of a row lock on the meetup. A counter starts from the
+ * registrations already in the database the first time its meetup is touched; from then
+ * on every insert reserves here first and releases if the insert fails.
+ * <p>
+ * The counters are per JVM: with more than one instance writing registrations they
+ * must be backed by a shared store.
+ */
+@Component
+public class SeatCounter {
+
+    private final RegistrationRepository repository;
+
+    private final ConcurrentMap<Integer, AtomicInteger> taken = new ConcurrentHashMap<>();
+
+    public SeatCounter(RegistrationRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Takes a seat unless {@code capacity} is already reached. A {@code null} capacity
+     * means unlimited, but the seat is still counted in case a capacity is set later.
+     */
+    public boolean tryReserve(Integer meetupId, Integer capacity) {
+        AtomicInteger seats = seats(meetupId);
+        while (true) {
+            int current = seats.get();
+            if (capacity != null && current >= capacity) {
+                return false;
+            }
+            if (seats.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(Integer meetupId) {
+        AtomicInteger seats = taken.get(meetupId);
+        if (seats != null) {
+            seats.updateAndGet(current -> Math.max(current - 1, 0));
+        }
+    }
+
+    public int taken(Integer meetupId) {
+        return seats(meetupId).get();
+    }
+
+    /**
+     * Forgets the meetup; the next access recounts it from the database.
+     */
+    public void evict(Integer meetupId) {
+        taken.remove(meetupId);
+    }
+
+    private AtomicInteger seats(Integer meetupId) {
+        return taken.computeIfAbsent(meetupId,
+                id -> new AtomicInteger(Math.toIntExact(repository.countByMeetupId(id))));
+    }
+}
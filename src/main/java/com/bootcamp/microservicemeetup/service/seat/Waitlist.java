@@ -0,0 +1,60 @@
+package com.bootcamp.microservicemeetup.service.seat;
+
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ordered waitlist of a full meetup. Positions only grow, so the head is the first
+ * entry of the (id_meetup, waitlist_position) index and promoting it is one index
+ * seek plus one update, whatever the size of the meetup.
+ */
+@Component
+public class Waitlist {
+
+    private final RegistrationRepository repository;
+    private final MeetupRepository meetupRepository;
+
+    public Waitlist(RegistrationRepository repository, MeetupRepository meetupRepository) {
+        this.repository = repository;
+        this.meetupRepository = meetupRepository;
+    }
+
+    /**
+     * Position for a new entry at the tail. Two concurrent sign-ups may get the same
+     * position; the registration id breaks the tie.
+     */
+    public long nextPosition(Integer meetupId) {
+        Long last = repository.findMaxWaitlistPosition(meetupId);
+        return last == null ? 1 : last + 1;
+    }
+
+    public boolean hasEntries(Integer meetupId) {
+        return repository.findMaxWaitlistPosition(meetupId) != null;
+    }
+
+    /**
+     * Gives the freed seat to the head of the waitlist, in the caller's transaction.
+     * Promotions of one meetup are serialized on its row, so simultaneous
+     * cancellations promote distinct registrations, one each.
+     */
+    @Transactional
+    public Optional<Registration> promoteHead(Integer meetupId) {
+        meetupRepository.lockById(meetupId);
+
+        List<Registration> head = repository.findWaitlistHead(meetupId, PageRequest.ofSize(1));
+        if (head.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Registration promoted = head.get(0);
+        promoted.setWaitlistPosition(null);
+        return Optional.of(repository.save(promoted));
+    }
+}
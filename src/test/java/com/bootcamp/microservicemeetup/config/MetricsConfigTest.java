@@ -0,0 +1,44 @@
+package com.bootcamp.microservicemeetup.config;
+
+import com.bootcamp.microservicemeetup.controller.resource.MeetupController;
+import io.micrometer.core.instrument.Tag;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsConfigTest {
+
+    WebMvcTagsContributor contributor = new MetricsConfig().handlerMethodTagsContributor();
+
+    @Test
+    @DisplayName("Should tag request metrics with the controller method that served them")
+    public void handlerTagTest() {
+
+        Method getByMeetupId = Arrays.stream(MeetupController.class.getMethods())
+                .filter(method -> method.getName().equals("getByMeetupId"))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        HandlerMethod handler = new HandlerMethod(new MeetupController(null, null, null, null, null), getByMeetupId);
+
+        Iterable<Tag> tags = contributor.getTags(new MockHttpServletRequest(), new MockHttpServletResponse(), handler, null);
+
+        assertThat(tags).containsExactly(Tag.of("handler", "MeetupController.getByMeetupId"));
+    }
+
+    @Test
+    @DisplayName("Should tag requests without a controller method as none")
+    public void noHandlerTagTest() {
+
+        Iterable<Tag> tags = contributor.getTags(new MockHttpServletRequest(), new MockHttpServletResponse(), null, null);
+
+        assertThat(tags).containsExactly(Tag.of("handler", "none"));
+    }
+}
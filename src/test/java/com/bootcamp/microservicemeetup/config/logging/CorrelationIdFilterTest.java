@@ -0,0 +1,54 @@
+package com.bootcamp.microservicemeetup.config.logging;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CorrelationIdFilterTest {
+
+    @Test
+    @DisplayName("Should keep the client correlation id in the log context and echo it back")
+    public void clientCorrelationIdTest() throws Exception {
+
+        CorrelationIdFilter filter = new CorrelationIdFilter(0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/meetup/1");
+        request.addHeader(CorrelationIdFilter.HEADER, "abc-123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Map<String, String> seen = new HashMap<>();
+
+        filter.doFilter(request, response, (req, res) -> seen.putAll(ThreadContext.getImmutableContext()));
+
+        assertThat(seen).containsEntry(CorrelationIdFilter.CORRELATION_ID, "abc-123")
+                .doesNotContainKey(CorrelationIdFilter.SQL_TRACE);
+        assertThat(response.getHeader(CorrelationIdFilter.HEADER)).isEqualTo("abc-123");
+        assertThat(ThreadContext.isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should replace an invalid correlation id and mark one request in N for SQL tracing")
+    public void sampledSqlTraceTest() throws Exception {
+
+        CorrelationIdFilter filter = new CorrelationIdFilter(3);
+        List<Boolean> traced = new ArrayList<>();
+        String invalid = "line\nbreak";
+
+        for (int i = 0; i < 6; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/meetup/1");
+            request.addHeader(CorrelationIdFilter.HEADER, invalid);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, (req, res) -> traced.add(ThreadContext.containsKey(CorrelationIdFilter.SQL_TRACE)));
+            assertThat(response.getHeader(CorrelationIdFilter.HEADER)).isNotEqualTo(invalid).hasSize(36);
+        }
+
+        assertThat(traced).containsExactly(true, false, false, true, false, false);
+    }
+}
@@ -1,14 +1,18 @@
 package com.bootcamp.microservicemeetup.controller;
 
 import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
 import com.bootcamp.microservicemeetup.controller.resource.MeetupController;
 import com.bootcamp.microservicemeetup.exception.BusinessException;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.model.VersionStamp;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.service.MeetupDeletionService;
 import com.bootcamp.microservicemeetup.service.MeetupService;
 import com.bootcamp.microservicemeetup.service.MeetupService;
 import com.bootcamp.microservicemeetup.service.RegistrationService;
+import com.bootcamp.microservicemeetup.service.bulkhead.DbBulkhead;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,28 +23,43 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
 @WebMvcTest(controllers = {MeetupController.class})
 // Annotation that can be applied to a test class to enable and configure auto-configuration of MockMvc
 @AutoConfigureMockMvc
+@Import(DbBulkhead.class)
 public class MeetupControllerTest {
 
     static final String MEETUP_API = "/api/meetup";
@@ -52,6 +71,9 @@ public class MeetupControllerTest {
     @MockBean
     private MeetupService meetupService;
 
+    @MockBean
+    private MeetupDeletionService meetupDeletionService;
+
     @MockBean
     private RegistrationService registrationService;
 
@@ -77,7 +99,7 @@ public class MeetupControllerTest {
                 .event("Womakerscode Dados")
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("10/10/2021")
+                .meetupDate(LocalDate.of(2021, 10, 10))
                 .address("sao paulo")
                 .build();
 
@@ -100,23 +122,22 @@ public class MeetupControllerTest {
     public void getMeetupTest() throws Exception {
         Integer meetupId = 11;
         String event = "Womakerscode Dados";
-        Meetup meetup = createNewMeetup(meetupId, event);
+        MeetupDTO meetup = createNewMeetupDTO(meetupId, event);
 
-        BDDMockito.given(meetupService.getMeetupById(meetupId)).willReturn(Optional.of(meetup));
+        BDDMockito.given(meetupService.getMeetupDTOById(meetupId)).willReturn(Optional.of(meetup));
 
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
                 .get(MEETUP_API.concat("/" + meetupId))
                 .accept(MediaType.APPLICATION_JSON);
 
         // verificacao, assert
-        mockMvc
-                .perform(requestBuilder)
+        performAsync(requestBuilder)
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("id").value(meetupId))
                 .andExpect(jsonPath("event").value(createNewMeetup(meetupId, event).getEvent()))
                 .andExpect(jsonPath("description").value(createNewMeetup(meetupId, event).getDescription()))
                 .andExpect(jsonPath("organizer").value(createNewMeetup(meetupId, event).getOrganizer()))
-                .andExpect(jsonPath("meetupDate").value(createNewMeetup(meetupId, event).getMeetupDate()))
+                .andExpect(jsonPath("meetupDate").value(createNewMeetupDTO(meetupId, event).getMeetupDate()))
                 .andExpect(jsonPath("address").value(createNewMeetup(meetupId, event).getAddress()));
 
     }
@@ -125,25 +146,96 @@ public class MeetupControllerTest {
     @DisplayName("Should return NOT FOUND when meetup doesn't exist")
     public void meetupNotFoundTest() throws Exception {
 
-        BDDMockito.given(meetupService.getMeetupById(anyInt())).willReturn(Optional.empty());
+        BDDMockito.given(meetupService.getMeetupDTOById(anyInt())).willReturn(Optional.empty());
 
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
                 .get(MEETUP_API.concat("/" + 1))
                 .accept(MediaType.APPLICATION_JSON);
 
-        mockMvc
-                .perform(requestBuilder)
+        performAsync(requestBuilder)
                 .andExpect(status().isNotFound());
 
     }
 
+    @Test
+    @DisplayName("Should send the version and the counters of the served meetup as ETag")
+    public void getMeetupETagTest() throws Exception {
+        Integer meetupId = 11;
+        MeetupDTO meetup = createNewMeetupDTO(meetupId, "Womakerscode Dados");
+        meetup.setVersion(3L);
+        meetup.setLastModified(Instant.parse("2021-10-01T10:15:30Z"));
+        meetup.setRegisteredCount(4L);
+        meetup.setConfirmedCount(1L);
+
+        BDDMockito.given(meetupService.getMeetupDTOById(meetupId)).willReturn(Optional.of(meetup));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("/" + meetupId))
+                .accept(MediaType.APPLICATION_JSON);
+
+        performAsync(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3.4.1\""))
+                // os contadores mudam sem mudar last_modified: nenhuma data valida o corpo
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("id").value(meetupId))
+                .andExpect(jsonPath("version").doesNotExist());
+
+        // nenhuma leitura de versao separada do corpo
+        Mockito.verify(meetupService, Mockito.never()).getMeetupVersion(Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Should return NOT MODIFIED without a body when the ETag still matches")
+    public void getMeetupNotModifiedTest() throws Exception {
+        Integer meetupId = 11;
+        MeetupDTO meetup = createNewMeetupDTO(meetupId, "Womakerscode Dados");
+        meetup.setVersion(3L);
+        meetup.setRegisteredCount(4L);
+        meetup.setConfirmedCount(1L);
+
+        BDDMockito.given(meetupService.getMeetupDTOById(meetupId)).willReturn(Optional.of(meetup));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("/" + meetupId))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2.4.1\", \"3.4.1\"")
+                .accept(MediaType.APPLICATION_JSON);
+
+        performAsync(requestBuilder)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3.4.1\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Should serve the meetup again when only its counters changed since the ETag")
+    public void getMeetupCountersChangedTest() throws Exception {
+        Integer meetupId = 11;
+        MeetupDTO meetup = createNewMeetupDTO(meetupId, "Womakerscode Dados");
+        meetup.setVersion(3L);
+        meetup.setRegisteredCount(5L);
+        meetup.setConfirmedCount(1L);
+
+        BDDMockito.given(meetupService.getMeetupDTOById(meetupId)).willReturn(Optional.of(meetup));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("/" + meetupId))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3.4.1\"")
+                .accept(MediaType.APPLICATION_JSON);
+
+        performAsync(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3.5.1\""))
+                .andExpect(jsonPath("registeredCount").value(5));
+    }
+
     @Test
     @DisplayName("Should delete the meetup")
     public void deleteMeetupTest() throws Exception {
 
-        BDDMockito.given(meetupService
-                        .getMeetupById(anyInt()))
-                .willReturn(Optional.of(Meetup.builder().id(11).build()));
+        BDDMockito.given(meetupDeletionService
+                        .deleteWithRegistrations(anyInt()))
+                .willReturn(true);
 
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
                 .delete(MEETUP_API.concat("/" + 1))
@@ -159,9 +251,9 @@ public class MeetupControllerTest {
     @DisplayName("Should return resource not found when doesn't exist meetup")
     public void deleteNonExistentMeetupTest() throws Exception {
 
-        BDDMockito.given(meetupService
-                        .getMeetupById(anyInt()))
-                .willReturn(Optional.empty());
+        BDDMockito.given(meetupDeletionService
+                        .deleteWithRegistrations(anyInt()))
+                .willReturn(false);
 
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
                 .delete(MEETUP_API.concat("/" + 1))
@@ -186,27 +278,26 @@ public class MeetupControllerTest {
                 .event(event)
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("25/11/2021")
+                .meetupDate(LocalDate.of(2021, 11, 25))
                 .address("Brasilia")
                 .build();
 
 
-        BDDMockito.given(meetupService.getMeetupById(meetupId))
-                .willReturn(Optional.of(updatingMeetup));
-
         Meetup updateMeetup = Meetup.builder()
                 .id(meetupId)
                 .event(event)
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("10/10/2021")
+                .meetupDate(LocalDate.of(2021, 10, 10))
                 .address("sao paulo")
                 .build();
 
 
-        BDDMockito.given(meetupService
-                        .update(updatingMeetup))
-                .willReturn(updateMeetup);
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<Meetup> changes = invocation.getArgument(1);
+            changes.accept(updatingMeetup);
+            return Optional.of(updateMeetup);
+        }).given(meetupService).update(Mockito.eq(meetupId), Mockito.any());
 
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
                 .put(MEETUP_API.concat("/" + meetupId))
@@ -222,11 +313,68 @@ public class MeetupControllerTest {
                 .andExpect(jsonPath("event").value(createNewMeetup(meetupId, event).getEvent()))
                 .andExpect(jsonPath("description").value(createNewMeetup(meetupId, event).getDescription()))
                 .andExpect(jsonPath("organizer").value(createNewMeetup(meetupId, event).getOrganizer()))
-                .andExpect(jsonPath("meetupDate").value(createNewMeetup(meetupId, event).getMeetupDate()))
+                .andExpect(jsonPath("meetupDate").value(createNewMeetupDTO(meetupId, event).getMeetupDate()))
                 .andExpect(jsonPath("address").value(createNewMeetup(meetupId, event).getAddress()));
 
     }
 
+    @Test
+    @DisplayName("Should return PRECONDITION FAILED without writing when If-Match has an old version")
+    public void updateMeetupWithStaleIfMatchTest() throws Exception {
+        Integer meetupId = 11;
+        Meetup meetup = createNewMeetup(meetupId, "Womakerscode Dados");
+        meetup.setVersion(4L);
+        String json = new ObjectMapper().writeValueAsString(createNewMeetupDTO(meetupId, "Womakerscode Java"));
+
+        // o service aplica a verificacao do If-Match na versao lida do banco
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<Meetup> changes = invocation.getArgument(1);
+            changes.accept(meetup);
+            return Optional.of(meetup);
+        }).given(meetupService).update(Mockito.eq(meetupId), Mockito.any());
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .put(MEETUP_API.concat("/" + meetupId))
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .content(json)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mockMvc
+                .perform(requestBuilder)
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(meetup.getEvent()).isEqualTo("Womakerscode Dados");
+    }
+
+    @Test
+    @DisplayName("Should accept an If-Match taken from a GET even if the counters moved since")
+    public void updateMeetupWithCountersInIfMatchTest() throws Exception {
+        Integer meetupId = 11;
+        Meetup meetup = createNewMeetup(meetupId, "Womakerscode Dados");
+        meetup.setVersion(4L);
+        String json = new ObjectMapper().writeValueAsString(createNewMeetupDTO(meetupId, "Womakerscode Java"));
+
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<Meetup> changes = invocation.getArgument(1);
+            changes.accept(meetup);
+            return Optional.of(meetup);
+        }).given(meetupService).update(Mockito.eq(meetupId), Mockito.any());
+
+        // ETag do GET com 2 inscritos; desde entao houve mais inscricoes, mas a versao e a mesma
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .put(MEETUP_API.concat("/" + meetupId))
+                .header(HttpHeaders.IF_MATCH, "\"4.2.0\"")
+                .content(json)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mockMvc
+                .perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("event").value("Womakerscode Java"));
+    }
+
     @Test
     @DisplayName("Should return 404 when try to update a meetup no existent ")
     public void updateNonExistentMeetupTest() throws Exception {
@@ -242,8 +390,7 @@ public class MeetupControllerTest {
                 .contentType(MediaType.APPLICATION_JSON);
 
         // verificacao, assert
-        mockMvc
-                .perform(requestBuilder)
+        performAsync(requestBuilder)
                 .andExpect(status().isNotFound());
     }
 
@@ -252,17 +399,17 @@ public class MeetupControllerTest {
     public void findMeetupTest() throws Exception {
         Integer id = 11;
 
-        Meetup meetup = Meetup.builder()
+        MeetupDTO meetup = MeetupDTO.builder()
                 .id(id)
                 .event(createValidMeetup().getEvent())
                 .description(createValidMeetup().getDescription())
                 .organizer(createValidMeetup().getOrganizer())
-                .meetupDate(createValidMeetup().getMeetupDate())
+                .meetupDate("10/10/2021")
                 .address(createValidMeetup().getAddress())
                 .build();
 
 
-        BDDMockito.given(meetupService.find(Mockito.any(Meetup.class), Mockito.any(Pageable.class)))
+        BDDMockito.given(meetupService.findDTO(Mockito.any(Meetup.class), Mockito.any(Pageable.class)))
                 .willReturn(new PageImpl<>(Arrays.asList(meetup), PageRequest.of(0, 100), 1));
 
         String queryString = String.format("?event=%s&organizer=%s&page=0&size=100",
@@ -281,7 +428,186 @@ public class MeetupControllerTest {
                 .andExpect(jsonPath("pageable.pageSize").value(100))
                 .andExpect(jsonPath("pageable.pageNumber").value(0));
     }
-    
+
+    @Test
+    @DisplayName("Should stream all meetups as NDJSON")
+    public void exportMeetupsTest() throws Exception {
+
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<MeetupDTO> consumer = invocation.getArgument(0);
+            consumer.accept(createValidMeetupDTO());
+            consumer.accept(createNewMeetupDTO(12, "Womakerscode Java"));
+            return null;
+        }).given(meetupService).exportAll(Mockito.any());
+
+        MvcResult mvcResult = mockMvc
+                .perform(MockMvcRequestBuilders.get(MEETUP_API).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[1]).contains("Womakerscode Java");
+    }
+
+    @Test
+    @DisplayName("Should stream the registrations of a meetup as CSV")
+    public void exportMeetupRegistrationsCsvTest() throws Exception {
+
+        Integer meetupId = 11;
+        BDDMockito.given(meetupService.getMeetupVersion(meetupId)).willReturn(Optional.of(new VersionStamp(3L, null)));
+        givenCsvRegistrations(meetupId);
+
+        MvcResult mvcResult = mockMvc
+                .perform(MockMvcRequestBuilders.get(MEETUP_API.concat("/" + meetupId + "/registrations.csv")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, Matchers.containsString("meetup-11-registrations.csv")))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+
+        String[] lines = mvcResult.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines).containsExactly(
+                "id,personName,email,dateOfRegistration,registered,waitlistPosition",
+                "101,\"Fernandez, Mariela\",email@gmail.com,01/04/2022,true,",
+                "102,Juana,juana@gmail.com,01/04/2022,false,1");
+    }
+
+    @Test
+    @DisplayName("Should gzip the registrations CSV when the client accepts it")
+    public void exportMeetupRegistrationsCsvGzipTest() throws Exception {
+
+        Integer meetupId = 11;
+        BDDMockito.given(meetupService.getMeetupVersion(meetupId)).willReturn(Optional.of(new VersionStamp(3L, null)));
+        givenCsvRegistrations(meetupId);
+
+        MvcResult mvcResult = mockMvc
+                .perform(MockMvcRequestBuilders.get(MEETUP_API.concat("/" + meetupId + "/registrations.csv"))
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+
+        assertThat(gunzip(mvcResult.getResponse().getContentAsByteArray()))
+                .startsWith("id,personName,email")
+                .contains("102,Juana,juana@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Should return 404 when exporting the registrations of a meetup that doesn't exist")
+    public void exportRegistrationsOfNonExistentMeetupTest() throws Exception {
+
+        BDDMockito.given(meetupService.getMeetupVersion(anyInt())).willReturn(Optional.empty());
+
+        mockMvc
+                .perform(MockMvcRequestBuilders.get(MEETUP_API.concat("/404/registrations.csv")))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(registrationService, Mockito.never()).exportByMeetup(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Should filter meetups by cursor and return the next token")
+    public void findMeetupByCursorTest() throws Exception {
+
+        BDDMockito.given(meetupService.findAfter(Mockito.any(Meetup.class), Mockito.isNull(), Mockito.eq(1)))
+                .willReturn(new SliceImpl<>(Arrays.asList(createValidMeetup()), PageRequest.ofSize(1), true));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("/find/keyset?event=Womakerscode&size=1"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc
+                .perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("content[0].id").value(11))
+                .andExpect(jsonPath("next").isNotEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return BAD REQUEST when the cursor is invalid")
+    public void findMeetupByInvalidCursorTest() throws Exception {
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("/find/keyset?cursor=invalido"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc
+                .perform(requestBuilder)
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should accept sort by id on the cursor search, the order it already uses")
+    public void findMeetupByCursorSortedByIdTest() throws Exception {
+
+        BDDMockito.given(meetupService.findAfter(Mockito.any(Meetup.class), Mockito.isNull(), Mockito.eq(20)))
+                .willReturn(new SliceImpl<>(Arrays.asList(createValidMeetup()), PageRequest.ofSize(20), false));
+
+        mockMvc
+                .perform(MockMvcRequestBuilders.get(MEETUP_API.concat("/find/keyset?sort=id,asc")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("Should return BAD REQUEST instead of ignoring a sort other than id on the cursor search")
+    public void findMeetupByCursorWithSortTest() throws Exception {
+
+        mockMvc
+                .perform(MockMvcRequestBuilders.get(MEETUP_API.concat("/find/keyset?sort=event")))
+                .andExpect(status().isBadRequest());
+        mockMvc
+                .perform(MockMvcRequestBuilders.get(MEETUP_API.concat("/find/keyset?sort=id,desc")))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(meetupService, Mockito.never()).findAfter(Mockito.any(), Mockito.any(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Should list upcoming meetups in the requested date range")
+    public void findUpcomingMeetupsTest() throws Exception {
+
+        BDDMockito.given(meetupService.findUpcoming(Mockito.eq(LocalDate.of(2021, 10, 1)), Mockito.eq(LocalDate.of(2021, 10, 31)), Mockito.any(Pageable.class)))
+                .willReturn(new SliceImpl<>(Arrays.asList(createNewMeetupDTO(11, "Womakerscode Dados")), PageRequest.of(0, 20), false));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("/upcoming?from=01/10/2021&to=31/10/2021"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc
+                .perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("content[0].meetupDate").value("10/10/2021"));
+    }
+
+    @Test
+    @DisplayName("Should return BAD REQUEST when the upcoming range is invalid")
+    public void findUpcomingMeetupsInvalidRangeTest() throws Exception {
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(MEETUP_API.concat("/upcoming?from=31/10/2021&to=2021-10-01"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc
+                .perform(requestBuilder)
+                .andExpect(status().isBadRequest());
+    }
 
     private Meetup createValidMeetup() {
         return Meetup.builder()
@@ -289,7 +615,7 @@ public class MeetupControllerTest {
                 .event("Womakerscode Dados")
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("10/10/2021")
+                .meetupDate(LocalDate.of(2021, 10, 10))
                 .address("sao paulo")
                 .build();
     }
@@ -316,13 +642,38 @@ public class MeetupControllerTest {
                 .build();
     }
 
+    // endpoints que rodam no DbBulkhead respondem de forma assincrona
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc
+                .perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult));
+    }
+
+    private void givenCsvRegistrations(Integer meetupId) {
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<RegistrationDTO> consumer = invocation.getArgument(1);
+            consumer.accept(new RegistrationDTO(101, "Fernandez, Mariela", "email@gmail.com", "01/04/2022", true, null, null));
+            consumer.accept(new RegistrationDTO(102, "Juana", "juana@gmail.com", "01/04/2022", false, null, 1L));
+            return null;
+        }).given(registrationService).exportByMeetup(Mockito.eq(meetupId), Mockito.any());
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
     public Meetup createNewMeetup(Integer meetupId, String event) {
         return Meetup.builder()
                 .id(meetupId)
                 .event(event)
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("10/10/2021")
+                .meetupDate(LocalDate.of(2021, 10, 10))
                 .address("sao paulo")
                 .build();
     }
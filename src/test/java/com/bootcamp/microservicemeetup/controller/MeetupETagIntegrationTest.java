@@ -0,0 +1,91 @@
+package com.bootcamp.microservicemeetup.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The meetup ETag through the whole stack (controllers, Caffeine cache, striped counters
+ * and H2): a registration changes the served counts, so it has to change the ETag too.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "reactive.read.enabled=false",
+        "logging.level.org.hibernate.SQL=warn"})
+@AutoConfigureMockMvc
+public class MeetupETagIntegrationTest {
+
+    static final String MEETUP_API = "/api/meetup";
+    static final String REGISTRATION_API = "/api/registration";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Should serve the new count, not 304, when a registration happens after the GET")
+    public void registrationChangesMeetupETagTest() throws Exception {
+
+        String meetupJson = "{\"event\":\"Womakerscode Dados\",\"description\":\"descricao\",\"organizer\":\"organizadora\","
+                + "\"meetupDate\":\"10/10/2021\",\"address\":\"sao paulo\",\"capacity\":10}";
+        Integer meetupId = objectMapper.readValue(mockMvc.perform(MockMvcRequestBuilders.post(MEETUP_API)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(meetupJson))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString(), Integer.class);
+
+        String firstETag = performAsync(MockMvcRequestBuilders.get(MEETUP_API + "/" + meetupId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("registeredCount").value(0))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String registrationJson = "{\"personName\":\"Mariela Fernandez\",\"email\":\"mariela@email.com\","
+                + "\"dateOfRegistration\":\"01/10/2021\",\"registered\":true,\"meetup\":{\"id\":" + meetupId + "}}";
+        performAsync(MockMvcRequestBuilders.post(REGISTRATION_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(registrationJson))
+                .andExpect(status().isCreated());
+
+        // a linha do meetup nao mudou, mas o corpo sim: o ETag antigo nao pode dar 304
+        String secondETag = performAsync(MockMvcRequestBuilders.get(MEETUP_API + "/" + meetupId)
+                .header(HttpHeaders.IF_NONE_MATCH, firstETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("registeredCount").value(1))
+                .andExpect(jsonPath("confirmedCount").value(1))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(secondETag).isNotNull().isNotEqualTo(firstETag);
+        performAsync(MockMvcRequestBuilders.get(MEETUP_API + "/" + meetupId)
+                .header(HttpHeaders.IF_NONE_MATCH, secondETag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(MockMvcRequestBuilders.delete(MEETUP_API + "/" + meetupId))
+                .andExpect(status().isNoContent());
+    }
+
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc
+                .perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult));
+    }
+}
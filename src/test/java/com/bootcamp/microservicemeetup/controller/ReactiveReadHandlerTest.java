@@ -0,0 +1,148 @@
+package com.bootcamp.microservicemeetup.controller;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.resource.ReactiveReadHandler;
+import com.bootcamp.microservicemeetup.repository.ReactiveReadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReactiveReadHandlerTest {
+
+    static final String MEETUP_API = "/api/meetup";
+
+    ReactiveReadRepository repository;
+
+    WebTestClient webTestClient;
+
+    @BeforeEach
+    public void setUp() {
+        repository = Mockito.mock(ReactiveReadRepository.class);
+        webTestClient = WebTestClient.bindToRouterFunction(new ReactiveReadHandler(repository).routes()).build();
+    }
+
+    @Test
+    @DisplayName("Should get meetup information with the same fields as the MVC endpoint")
+    public void getMeetupTest() {
+
+        BDDMockito.given(repository.findMeetupById(11)).willReturn(Mono.just(createValidMeetupDTO()));
+
+        webTestClient.get().uri(MEETUP_API.concat("/11"))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("id").isEqualTo(11)
+                .jsonPath("event").isEqualTo("Womakerscode Dados")
+                .jsonPath("meetupDate").isEqualTo("10/10/2021")
+                .jsonPath("capacity").isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Should return NOT FOUND when meetup doesn't exist")
+    public void meetupNotFoundTest() {
+
+        BDDMockito.given(repository.findMeetupById(1)).willReturn(Mono.empty());
+
+        webTestClient.get().uri(MEETUP_API.concat("/1"))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("errors[0]").isEqualTo("meetup id doesn't exist");
+    }
+
+    @Test
+    @DisplayName("Should return BAD REQUEST when the meetup id is not a number")
+    public void invalidMeetupIdTest() {
+
+        webTestClient.get().uri(MEETUP_API.concat("/abc"))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Should page the registrations of a meetup by cursor")
+    public void getRegistrationsByMeetupTest() {
+
+        RegistrationDTO first = createValidRegistrationDTO(101);
+        RegistrationDTO second = createValidRegistrationDTO(102);
+        BDDMockito.given(repository.findRegistrationsByMeetupAfter(11, null, 2))
+                .willReturn(Flux.just(first, second));
+
+        webTestClient.get().uri(MEETUP_API.concat("/11/registrations?size=1"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("content.length()").isEqualTo(1)
+                .jsonPath("content[0].id").isEqualTo(101)
+                .jsonPath("content[0].meetup.id").isEqualTo(11)
+                .jsonPath("next").isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Should search meetups by event and stop when there is no next page")
+    public void findMeetupsTest() {
+
+        BDDMockito.given(repository.findMeetupsAfter(Mockito.any(MeetupFilterDTO.class), Mockito.isNull(), Mockito.eq(21)))
+                .willReturn(Flux.just(createValidMeetupDTO()));
+
+        webTestClient.get().uri(MEETUP_API.concat("/find?event=dados"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("content.length()").isEqualTo(1)
+                .jsonPath("next").doesNotExist();
+
+        ArgumentCaptor<MeetupFilterDTO> filter = ArgumentCaptor.forClass(MeetupFilterDTO.class);
+        Mockito.verify(repository).findMeetupsAfter(filter.capture(), Mockito.isNull(), Mockito.eq(21));
+        assertThat(filter.getValue().getEvent()).isEqualTo("dados");
+        assertThat(filter.getValue().getOrganizer()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should return BAD REQUEST for a sort the cursor pages can't follow")
+    public void findMeetupsWithSortTest() {
+
+        webTestClient.get().uri(MEETUP_API.concat("/find?event=dados&sort=event"))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    private MeetupDTO createValidMeetupDTO() {
+        return MeetupDTO.builder()
+                .id(11)
+                .event("Womakerscode Dados")
+                .description("descricao")
+                .organizer("organizadora")
+                .meetupDate("10/10/2021")
+                .address("sao paulo")
+                .capacity(50)
+                .build();
+    }
+
+    private RegistrationDTO createValidRegistrationDTO(Integer id) {
+        return RegistrationDTO.builder()
+                .id(id)
+                .personName("Mariela Fernandez")
+                .email("email" + id + "@gmail.com")
+                .dateOfRegistration("10/10/2021")
+                .registered(true)
+                .meetup(createValidMeetupDTO())
+                .build();
+    }
+}
@@ -1,13 +1,19 @@
 package com.bootcamp.microservicemeetup.controller;
 
+import com.bootcamp.microservicemeetup.controller.dto.BulkImportResultDTO;
 import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
 import com.bootcamp.microservicemeetup.controller.resource.RegistrationController;
 import com.bootcamp.microservicemeetup.exception.BusinessException;
 import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationTicketDTO;
+import com.bootcamp.microservicemeetup.model.VersionStamp;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
 import com.bootcamp.microservicemeetup.service.MeetupService;
+import com.bootcamp.microservicemeetup.service.RegistrationImportService;
 import com.bootcamp.microservicemeetup.service.RegistrationService;
+import com.bootcamp.microservicemeetup.service.bulkhead.DbBulkhead;
+import com.bootcamp.microservicemeetup.service.ingest.RegistrationIngestQueue;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,20 +24,32 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -42,6 +60,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(controllers = {RegistrationController.class})
 // Annotation that can be applied to a test class to enable and configure auto-configuration of MockMvc
 @AutoConfigureMockMvc
+@Import(DbBulkhead.class)
 public class RegistrationControllerTest {
 
     static  String REGISTRATION_API = "/api/registration";
@@ -55,6 +74,12 @@ public class RegistrationControllerTest {
     @MockBean
     MeetupService meetupService;
 
+    @MockBean
+    RegistrationImportService registrationImportService;
+
+    @MockBean
+    RegistrationIngestQueue registrationIngestQueue;
+
     @Test
     @DisplayName("Should create a registration with success")
     public void createRegistrationTest() throws Exception {
@@ -66,7 +91,7 @@ public class RegistrationControllerTest {
                 .id(101)
                 .personName("Mariela Fernandez")
                 .email("email@gmail.com")
-                .dateOfRegistration("10/10/2021")
+                .dateOfRegistration(LocalDate.of(2021, 10, 10))
                 .registered(true)
                 .meetup(meetup)
                 .build();
@@ -87,8 +112,7 @@ public class RegistrationControllerTest {
                 .content(json);
 
         // verificacao, assert
-        mockMvc
-                .perform(request)
+        performAsync(request)
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("id").value(101))
                 .andExpect(jsonPath("personName").value(registrationDTOBuilder.getPersonName()))
@@ -138,8 +162,7 @@ public class RegistrationControllerTest {
                 .accept(MediaType.APPLICATION_JSON)
                 .content(json);
 
-        mockMvc
-                .perform(request)
+        performAsync(request)
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("errors", hasSize(1)))
                 .andExpect(jsonPath("errors[0]").value("Registration already created"));
@@ -150,33 +173,17 @@ public class RegistrationControllerTest {
     @DisplayName("Should get registration information")
     public void getRegistrationTest() throws Exception {
         Integer id = 11;
-        Meetup meetup = createValidMeetup();
-        Registration registration = Registration.builder()
-                .id(id)
-                .personName(createNewRegistration().getPersonName())
-                .email(createNewRegistration().getEmail())
-                .dateOfRegistration(createNewRegistration().getDateOfRegistration())
-                .registered(createNewRegistration().getRegistered())
-                .meetup(Meetup.builder()
-                        .id(createNewRegistration().getMeetup().getId())
-                        .event(createNewRegistration().getMeetup().getEvent())
-                        .description(createNewRegistration().getMeetup().getDescription())
-                        .organizer(createNewRegistration().getMeetup().getOrganizer())
-                        .meetupDate(createNewRegistration().getMeetup().getMeetupDate())
-                        .address(createNewRegistration().getMeetup().getAddress())
-                        .build()
-                )
-                .build();
+        RegistrationDTO registration = createNewRegistration();
+        registration.setId(id);
 
-        BDDMockito.given(registrationService.getRegistrationById(id)).willReturn(Optional.of(registration));
+        BDDMockito.given(registrationService.getRegistrationDTOById(id)).willReturn(Optional.of(registration));
 
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
                 .get(REGISTRATION_API.concat("/" + id))
                 .accept(MediaType.APPLICATION_JSON);
 
         // verificacao, assert
-        mockMvc
-                .perform(requestBuilder)
+        performAsync(requestBuilder)
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("id").value(id))
                 .andExpect(jsonPath("personName").value(createNewRegistration().getPersonName()))
@@ -191,18 +198,37 @@ public class RegistrationControllerTest {
     @DisplayName("Should return NOT FOUND when registration doesn't exist")
     public void registrationNotFoundTest() throws Exception {
 
-        BDDMockito.given(registrationService.getRegistrationById(anyInt())).willReturn(Optional.empty());
+        BDDMockito.given(registrationService.getRegistrationDTOById(anyInt())).willReturn(Optional.empty());
 
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
                 .get(REGISTRATION_API.concat("/" + 1))
                 .accept(MediaType.APPLICATION_JSON);
 
-        mockMvc
-                .perform(requestBuilder)
+        performAsync(requestBuilder)
                 .andExpect(status().isNotFound());
 
     }
 
+    @Test
+    @DisplayName("Should return NOT MODIFIED when neither the registration nor its meetup changed")
+    public void getRegistrationNotModifiedTest() throws Exception {
+        Integer id = 11;
+
+        BDDMockito.given(registrationService.getRegistrationVersion(id))
+                .willReturn(Optional.of(new VersionStamp(5L, 3L, null, null)));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(REGISTRATION_API.concat("/" + id))
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"5.3\"")
+                .accept(MediaType.APPLICATION_JSON);
+
+        performAsync(requestBuilder)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5.3\""));
+
+        Mockito.verify(registrationService, Mockito.never()).getRegistrationDTOById(Mockito.anyInt());
+    }
+
     @Test
     @DisplayName("Should delete the registration")
     public void deleteRegistrationTest() throws Exception {
@@ -233,8 +259,7 @@ public class RegistrationControllerTest {
                 .get(REGISTRATION_API.concat("/" + 1))
                 .accept(MediaType.APPLICATION_JSON);
 
-        mockMvc
-                .perform(requestBuilder)
+        performAsync(requestBuilder)
                 .andExpect(status().isNotFound());
 
     }
@@ -250,7 +275,7 @@ public class RegistrationControllerTest {
                 .event("Womakerscode Dados")
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("10/10/2021")
+                .meetupDate(LocalDate.of(2021, 10, 10))
                 .address("sao paulo")
                 .build();
 
@@ -261,7 +286,7 @@ public class RegistrationControllerTest {
                 .id(registrationId)
                 .personName("Juana Fernandez")
                 .email("emailjuana@gmail.com")
-                .dateOfRegistration("10/10/2021")
+                .dateOfRegistration(LocalDate.of(2021, 10, 10))
                 .registered(true)
                 .meetup(meetup)
                 .build();
@@ -274,7 +299,7 @@ public class RegistrationControllerTest {
                 .id(registrationId)
                 .personName("Mariela Fernandez")
                 .email("email@gmail.com")
-                .dateOfRegistration("10/10/2021")
+                .dateOfRegistration(LocalDate.of(2021, 10, 10))
                 .registered(true)
                 .meetup(meetup)
                 .build();
@@ -291,8 +316,7 @@ public class RegistrationControllerTest {
                 .contentType(MediaType.APPLICATION_JSON);
 
         // verificacao, assert
-        mockMvc
-                .perform(requestBuilder)
+        performAsync(requestBuilder)
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("id").value(registrationId))
                 .andExpect(jsonPath("personName").value(createNewRegistration().getPersonName()))
@@ -305,6 +329,30 @@ public class RegistrationControllerTest {
 
     }
 
+    @Test
+    @DisplayName("Should return CONFLICT when the registration was changed by a concurrent update")
+    public void updateRegistrationConflictTest() throws Exception {
+        Integer registrationId = 11;
+        Meetup meetup = createValidMeetup();
+        Registration registration = createValidRegistration();
+        registration.setId(registrationId);
+
+        BDDMockito.given(meetupService.getMeetupById(meetup.getId())).willReturn(Optional.of(meetup));
+        BDDMockito.given(registrationService.getRegistrationById(registrationId)).willReturn(Optional.of(registration));
+        BDDMockito.given(registrationService.update(Mockito.any(Registration.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Registration.class, registrationId));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .put(REGISTRATION_API.concat("/" + registrationId))
+                .content(new ObjectMapper().writeValueAsString(createNewRegistration()))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        performAsync(requestBuilder)
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("errors[0]").value("resource was modified concurrently, reload it and retry"));
+    }
+
     @Test
     @DisplayName("Should return 404 when try to update a registration no existent ")
     public void updateNonExistentRegistrationTest() throws Exception {
@@ -320,8 +368,7 @@ public class RegistrationControllerTest {
                 .contentType(MediaType.APPLICATION_JSON);
 
         // verificacao, assert
-        mockMvc
-                .perform(requestBuilder)
+        performAsync(requestBuilder)
                 .andExpect(status().isNotFound());
     }
 
@@ -330,24 +377,11 @@ public class RegistrationControllerTest {
     public void findRegistrationTest() throws Exception {
         Integer id = 11;
 
-        Registration registration = Registration.builder()
-                .id(id)
-                .personName(createNewRegistration().getPersonName())
-                .email(createNewRegistration().getEmail())
-                .dateOfRegistration(createNewRegistration().getDateOfRegistration())
-                .registered(createNewRegistration().getRegistered())
-                .meetup(Meetup.builder()
-                        .id(createNewRegistration().getMeetup().getId())
-                        .event(createNewRegistration().getMeetup().getEvent())
-                        .description(createNewRegistration().getMeetup().getDescription())
-                        .organizer(createNewRegistration().getMeetup().getOrganizer())
-                        .meetupDate(createNewRegistration().getMeetup().getMeetupDate())
-                        .address(createNewRegistration().getMeetup().getAddress())
-                        .build())
-                .build();
+        RegistrationDTO registration = createNewRegistration();
+        registration.setId(id);
 
 
-        BDDMockito.given(registrationService.find(Mockito.any(Registration.class), Mockito.any(Pageable.class)))
+        BDDMockito.given(registrationService.findDTO(Mockito.any(Registration.class), Mockito.any(Pageable.class)))
                 .willReturn(new PageImpl<>(Arrays.asList(registration), PageRequest.of(0, 100), 1));
 
         String queryString = String.format("?personName=%s&dateOfRegistration=%s&page=0&size=100",
@@ -367,6 +401,169 @@ public class RegistrationControllerTest {
                 .andExpect(jsonPath("pageable.pageNumber").value(0));
     }
 
+    @Test
+    @DisplayName("Should refuse a partial dateOfRegistration filter instead of matching it as text")
+    public void findRegistrationPartialDateTest() throws Exception {
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(REGISTRATION_API.concat("/find?dateOfRegistration=10/2021&page=0&size=100"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc
+                .perform(requestBuilder)
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(registrationService, Mockito.never()).findDTO(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Should filter registrations without counting the total")
+    public void findRegistrationSliceTest() throws Exception {
+
+        BDDMockito.given(registrationService.findSlice(Mockito.any(Registration.class), Mockito.any(Pageable.class)))
+                .willReturn(new SliceImpl<>(Arrays.asList(createValidRegistration()), PageRequest.of(0, 1), true));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get(REGISTRATION_API.concat("/find/slice?personName=Mariela&page=0&size=1"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc
+                .perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("last").value(false))
+                .andExpect(jsonPath("totalElements").doesNotExist());
+
+        Mockito.verify(registrationService, Mockito.never()).find(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Should import registrations sent as NDJSON")
+    public void bulkCreateRegistrationsTest() throws Exception {
+
+        List<RegistrationDTO> received = new ArrayList<>();
+        BDDMockito.given(registrationImportService.importAll(Mockito.any())).willAnswer(invocation -> {
+            Iterator<RegistrationDTO> registrations = invocation.getArgument(0);
+            registrations.forEachRemaining(received::add);
+            return BulkImportResultDTO.builder().received(received.size()).created(received.size()).build();
+        });
+
+        RegistrationDTO other = createNewRegistration();
+        other.setEmail("outro@gmail.com");
+        String ndjson = new ObjectMapper().writeValueAsString(createNewRegistration()) + "\n"
+                + new ObjectMapper().writeValueAsString(other) + "\n";
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .post(REGISTRATION_API.concat("/bulk"))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(ndjson);
+
+        mockMvc
+                .perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("received").value(2))
+                .andExpect(jsonPath("created").value(2));
+
+        assertThat(received)
+                .extracting(RegistrationDTO::getEmail)
+                .containsExactly("email@gmail.com", "outro@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Should answer BAD REQUEST with the counts so far when a bulk row is malformed")
+    public void bulkCreateMalformedRowTest() throws Exception {
+
+        BDDMockito.given(registrationImportService.importAll(Mockito.any())).willReturn(BulkImportResultDTO.builder()
+                .received(1).created(1).failedAtRow(2L).parseError("Unexpected end-of-input").build());
+
+        String ndjson = new ObjectMapper().writeValueAsString(createNewRegistration()) + "\n"
+                + "{\"personName\": \n";
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .post(REGISTRATION_API.concat("/bulk"))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(ndjson);
+
+        mockMvc
+                .perform(requestBuilder)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("created").value(1))
+                .andExpect(jsonPath("failedAtRow").value(2))
+                .andExpect(jsonPath("parseError").value("Unexpected end-of-input"));
+    }
+
+    @Test
+    @DisplayName("Should accept a registration for asynchronous processing")
+    public void createAsyncRegistrationTest() throws Exception {
+
+        BDDMockito.given(registrationIngestQueue.submit(Mockito.any(RegistrationDTO.class)))
+                .willReturn(Optional.of(RegistrationTicketDTO.builder().ticket("abc").status(RegistrationTicketDTO.QUEUED).build()));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(REGISTRATION_API.concat("/async"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(createNewRegistration()));
+
+        mockMvc
+                .perform(request)
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("ticket").value("abc"))
+                .andExpect(jsonPath("status").value(RegistrationTicketDTO.QUEUED));
+
+        Mockito.verify(registrationService, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Should return TOO MANY REQUESTS when the registration queue is full")
+    public void createAsyncRegistrationQueueFullTest() throws Exception {
+
+        BDDMockito.given(registrationIngestQueue.submit(Mockito.any(RegistrationDTO.class))).willReturn(Optional.empty());
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(REGISTRATION_API.concat("/async"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(createNewRegistration()));
+
+        mockMvc
+                .perform(request)
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    @DisplayName("Should return the status of an asynchronous registration")
+    public void getAsyncRegistrationStatusTest() throws Exception {
+
+        BDDMockito.given(registrationIngestQueue.status("abc"))
+                .willReturn(Optional.of(RegistrationTicketDTO.builder()
+                        .ticket("abc")
+                        .status(RegistrationTicketDTO.DONE)
+                        .registrationId(101)
+                        .build()));
+
+        mockMvc
+                .perform(MockMvcRequestBuilders.get(REGISTRATION_API.concat("/async/abc")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("status").value(RegistrationTicketDTO.DONE))
+                .andExpect(jsonPath("registrationId").value(101));
+
+        mockMvc
+                .perform(MockMvcRequestBuilders.get(REGISTRATION_API.concat("/async/desconhecido")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    // endpoints que rodam no DbBulkhead respondem de forma assincrona
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc
+                .perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult));
+    }
 
     private RegistrationDTO createNewRegistration() {
         MeetupDTO meetup = createValidMeetupDTO();
@@ -388,7 +585,7 @@ public class RegistrationControllerTest {
                 .id(101)
                 .personName("Mariela Fernandez")
                 .email("email@gmail.com")
-                .dateOfRegistration("10/10/2021")
+                .dateOfRegistration(LocalDate.of(2021, 10, 10))
                 .registered(true)
                 .meetup(meetup)
                 .build();
@@ -413,7 +610,7 @@ public class RegistrationControllerTest {
                 .event("Womakerscode Dados")
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("10/10/2021")
+                .meetupDate(LocalDate.of(2021, 10, 10))
                 .address("sao paulo")
                 .build();
     }
@@ -0,0 +1,385 @@
+package com.bootcamp.microservicemeetup.load;
+
+import com.bootcamp.microservicemeetup.config.ReactiveReadServer;
+import com.bootcamp.microservicemeetup.service.search.SearchIndexLoader;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * End-to-end load test: boots the application on a random port over a seeded H2 and
+ * sends a fixed-rate (open-loop) mix of creates, lookups and searches, then compares the
+ * synchronous registration endpoint with the queued one and the MVC reads with the
+ * reactive ones under thousands of open connections. Latency is taken
+ * from the moment each request was scheduled, not from when it was sent, so a slow
+ * server shows up as latency instead of as a lower request rate.
+ * <p>
+ * Tagged {@code load}: {@code ./gradlew test} skips it and {@code ./gradlew loadTest}
+ * runs it. Rate, duration, concurrency and the p99 SLOs are {@code -Dload.*}
+ * properties; the run fails when an operation breaks its SLO or the error rate.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.org.hibernate.SQL=warn",
+        "reactive.read.port=0"})
+public class ApiLoadTest {
+
+    static final int MEETUPS = 100;
+    static final int REGISTRATIONS = 10_000;
+
+    // requisicoes por segundo, somando todas as operacoes
+    static final int RATE = Integer.getInteger("load.rate", 200);
+    static final int SECONDS = Integer.getInteger("load.seconds", 30);
+    static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 5);
+    // limite de requisicoes em voo; acima dele a espera conta como latencia
+    static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+    // conexoes abertas ao mesmo tempo na comparacao MVC x reativo
+    static final int CONNECTIONS = Integer.getInteger("load.connections", 5000);
+    static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+    static final long DEFAULT_P99_MILLIS = Long.getLong("load.slo.p99-ms", 250);
+    static final Path REPORT_DIR = Paths.get(System.getProperty("load.report-dir", "build/reports/load"));
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    SearchIndexLoader searchIndexLoader;
+
+    @Autowired
+    ReactiveReadServer reactiveReadServer;
+
+    ExecutorService executor;
+
+    HttpClient client;
+
+    // o contexto (e o H2) e o mesmo para todos os testes da classe
+    static boolean seeded;
+
+    static final AtomicLong created = new AtomicLong();
+
+    @BeforeEach
+    public void setUp() {
+        if (!seeded) {
+            SeedData.seed(jdbc, searchIndexLoader, MEETUPS, REGISTRATIONS);
+            seeded = true;
+        }
+        executor = Executors.newFixedThreadPool(CONCURRENCY);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should keep every operation of the mixed traffic under its p99 SLO")
+    public void mixedTrafficTest() throws Exception {
+
+        List<Operation> mix = List.of(
+                new Operation("create-registration", 20, 201, n -> post("/api/registration", registrationJson(n))),
+                new Operation("get-meetup", 40, 200, n -> get("/api/meetup/" + meetupId(n))),
+                new Operation("find-meetups", 25, 200, n -> get("/api/meetup/find?event=event%20" + (n % 10) + "&size=20")),
+                new Operation("meetup-registrations", 15, 200, n -> HttpRequest.newBuilder(uri("/api/registration/meetup-registrations?size=20"))
+                        .header("Content-Type", "application/json")
+                        .method("GET", HttpRequest.BodyPublishers.ofString("{\"id\":" + meetupId(n) + "}"))
+                        .build()));
+
+        run(mix, WARMUP_SECONDS);
+        mix.forEach(Operation::reset);
+        run(mix, SECONDS);
+
+        report(mix, true);
+    }
+
+    @Test
+    @DisplayName("Should compare registrations written per second by the sync and the queued endpoints")
+    public void registrationWritesTest() throws Exception {
+
+        List<Operation> writes = List.of(
+                new Operation("create-registration-sync", 1, 201, n -> post("/api/registration", registrationJson(n))),
+                new Operation("create-registration-async", 1, 202, n -> post("/api/registration/async", registrationJson(n))));
+
+        // cada endpoint roda sozinho, na mesma taxa; o assincrono so conta como escrito
+        // quando o worker grava a inscricao, nao quando devolve o 202
+        double[] written = new double[writes.size()];
+        for (int i = 0; i < writes.size(); i++) {
+            Operation operation = writes.get(i);
+            long expected = countRegistrations();
+
+            run(List.of(operation), WARMUP_SECONDS);
+            expected += operation.accepted();
+            awaitRegistrations(expected);
+            operation.reset();
+
+            long start = System.nanoTime();
+            run(List.of(operation), SECONDS);
+            expected += operation.accepted();
+            boolean drained = awaitRegistrations(expected);
+            written[i] = operation.accepted() / ((System.nanoTime() - start) / 1e9);
+            if (!drained) {
+                throw new IllegalStateException(operation.name + ": registrations still missing 30 s after the run");
+            }
+        }
+
+        report(writes, true);
+        System.out.printf("%n%-26s %12s %12s%n", "operation", "accepted/s", "written/s");
+        for (int i = 0; i < writes.size(); i++) {
+            Operation operation = writes.get(i);
+            System.out.printf("%-26s %12.1f %12.1f%n",
+                    operation.name, operation.accepted() / (double) SECONDS, written[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Should compare the MVC and the reactive read endpoints with thousands of connections open")
+    public void concurrentReadsTest() throws Exception {
+
+        int reactivePort = reactiveReadServer.getPort();
+        List<Operation> reads = List.of(
+                new Operation("mvc-get-meetup", 1, 200, n -> get(port, "/api/meetup/" + meetupId(n))),
+                new Operation("reactive-get-meetup", 1, 200, n -> get(reactivePort, "/api/meetup/" + meetupId(n))),
+                new Operation("mvc-find-meetups", 1, 200, n -> get(port, "/api/meetup/find?event=event%20" + (n % 10) + "&size=20")),
+                new Operation("reactive-find-meetups", 1, 200, n -> get(reactivePort, "/api/meetup/find?event=event%20" + (n % 10) + "&size=20")),
+                new Operation("mvc-meetup-registrations", 1, 200, n -> HttpRequest.newBuilder(uri(port, "/api/registration/meetup-registrations?size=20"))
+                        .header("Content-Type", "application/json")
+                        .method("GET", HttpRequest.BodyPublishers.ofString("{\"id\":" + meetupId(n) + "}"))
+                        .build()),
+                new Operation("reactive-meetup-registrations", 1, 200, n -> get(reactivePort, "/api/meetup/" + meetupId(n) + "/registrations?size=20")));
+
+        // cada operacao roda sozinha; com esse numero de conexoes a latencia e ditada pela
+        // vazao e o bulkhead do MVC descarta parte das requisicoes, entao aqui so se imprime
+        // vazao, erros e percentis lado a lado, sem SLO
+        for (Operation operation : reads) {
+            saturate(operation, CONNECTIONS, WARMUP_SECONDS);
+            operation.reset();
+            saturate(operation, CONNECTIONS, SECONDS);
+        }
+
+        report(reads, false);
+    }
+
+    // imprime os percentis, grava os .hgrm e, se pedido, confere o SLO de p99 e a taxa de
+    // erros de cada operacao
+    private void report(List<Operation> operations, boolean enforce) throws IOException {
+        Files.createDirectories(REPORT_DIR);
+        SoftAssertions softly = new SoftAssertions();
+        System.out.printf("%n%-26s %8s %7s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : operations) {
+            Histogram histogram = operation.histogram;
+            long count = histogram.getTotalCount();
+            System.out.printf("%-26s %8d %7d %8.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.name, count, operation.errors.get(), count / (double) SECONDS,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+            try (PrintStream out = new PrintStream(REPORT_DIR.resolve(operation.name + ".hgrm").toFile())) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+
+            if (enforce) {
+                long slo = Long.getLong("load.slo.p99-ms." + operation.name, DEFAULT_P99_MILLIS);
+                softly.assertThat(millis(histogram.getValueAtPercentile(99)))
+                        .as("p99 of %s (ms)", operation.name)
+                        .isLessThanOrEqualTo(slo);
+                softly.assertThat(operation.errors.get() / (double) Math.max(count, 1))
+                        .as("error rate of %s", operation.name)
+                        .isLessThanOrEqualTo(MAX_ERROR_RATE);
+            }
+        }
+        softly.assertAll();
+    }
+
+    // uma thread agenda as requisicoes em intervalos fixos, sem esperar as respostas
+    private void run(List<Operation> mix, int seconds) throws InterruptedException {
+        int totalWeight = mix.stream().mapToInt(operation -> operation.weight).sum();
+        long interval = TimeUnit.SECONDS.toNanos(1) / RATE;
+        long requests = (long) RATE * seconds;
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        Random random = new Random(42);
+
+        long start = System.nanoTime();
+        for (long n = 0; n < requests; n++) {
+            long scheduled = start + n * interval;
+            for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = pick(mix, random.nextInt(totalWeight));
+            HttpRequest request = operation.request.apply(n);
+            inFlight.acquire();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        operation.record(System.nanoTime() - scheduled,
+                                error == null && response.statusCode() == operation.expectedStatus);
+                        inFlight.release();
+                    });
+        }
+        if (!inFlight.tryAcquire(CONCURRENCY, 30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("requests still running 30 s after the end of the run");
+        }
+    }
+
+    // laco fechado: mantem connections requisicoes em voo, cada resposta dispara a proxima
+    private void saturate(Operation operation, int connections, int seconds) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong sequence = new AtomicLong();
+        CountDownLatch finished = new CountDownLatch(connections);
+        for (int i = 0; i < connections; i++) {
+            sendUntil(operation, sequence, end, finished);
+        }
+        if (!finished.await(seconds + 30L, TimeUnit.SECONDS)) {
+            throw new IllegalStateException(operation.name + ": requests still running 30 s after the end of the run");
+        }
+    }
+
+    private void sendUntil(Operation operation, AtomicLong sequence, long end, CountDownLatch finished) {
+        if (System.nanoTime() - end >= 0) {
+            finished.countDown();
+            return;
+        }
+        long sent = System.nanoTime();
+        client.sendAsync(operation.request.apply(sequence.getAndIncrement()), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    operation.record(System.nanoTime() - sent,
+                            error == null && response.statusCode() == operation.expectedStatus);
+                    sendUntil(operation, sequence, end, finished);
+                });
+    }
+
+    private static Operation pick(List<Operation> mix, int ticket) {
+        for (Operation operation : mix) {
+            ticket -= operation.weight;
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private long countRegistrations() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM registration", Long.class);
+    }
+
+    // espera o worker da fila gravar o que foi aceito
+    private boolean awaitRegistrations(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (countRegistrations() < expected) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(50);
+        }
+        return true;
+    }
+
+    private String registrationJson(long n) {
+        return "{\"personName\":\"Load " + n + "\",\"email\":\"load" + created.incrementAndGet() + "@mail.com\","
+                + "\"dateOfRegistration\":\"01/05/2022\",\"registered\":false,"
+                + "\"meetup\":{\"id\":" + meetupId(n) + "}}";
+    }
+
+    private static int meetupId(long n) {
+        return (int) (n % MEETUPS) + 1;
+    }
+
+    private HttpRequest get(String path) {
+        return get(port, path);
+    }
+
+    private HttpRequest get(int serverPort, String path) {
+        return HttpRequest.newBuilder(uri(serverPort, path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return uri(port, path);
+    }
+
+    private static URI uri(int serverPort, String path) {
+        return URI.create("http://localhost:" + serverPort + path);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    static class Operation {
+
+        final String name;
+        final int weight;
+        final int expectedStatus;
+        final LongFunction<HttpRequest> request;
+        // microssegundos, ate 1 minuto, 3 digitos significativos
+        final Histogram histogram = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        final AtomicLong errors = new AtomicLong();
+
+        Operation(String name, int weight, int expectedStatus, LongFunction<HttpRequest> request) {
+            this.name = name;
+            this.weight = weight;
+            this.expectedStatus = expectedStatus;
+            this.request = request;
+        }
+
+        void record(long nanos, boolean ok) {
+            histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), histogram.getHighestTrackableValue()));
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+
+        // respostas com o status esperado
+        long accepted() {
+            return histogram.getTotalCount() - errors.get();
+        }
+
+        void reset() {
+            histogram.reset();
+            errors.set(0);
+        }
+    }
+}
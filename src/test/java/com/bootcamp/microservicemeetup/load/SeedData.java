@@ -0,0 +1,45 @@
+package com.bootcamp.microservicemeetup.load;
+
+import com.bootcamp.microservicemeetup.service.counter.MeetupCounters;
+import com.bootcamp.microservicemeetup.service.search.SearchIndexLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Seeds the in-memory H2 of a running application with plain {@code INSERT ... SELECT}
+ * statements, so 100k rows are ready in about a second instead of going through the
+ * services. Shared by {@link ApiLoadTest} and the JMH benchmarks.
+ */
+public final class SeedData {
+
+    private SeedData() {
+    }
+
+    /**
+     * Inserts {@code meetups} meetups without capacity and {@code registrations}
+     * registrations spread evenly over them ({@code person<n>@mail.com} goes to meetup
+     * {@code n % meetups + 1}), then reloads the search indexes.
+     */
+    public static void seed(JdbcTemplate jdbc, SearchIndexLoader searchIndexLoader, int meetups, int registrations) {
+        jdbc.update("INSERT INTO meetup (id, event, description, organizer, meetup_date, address, capacity, version, last_modified) "
+                + "SELECT x, 'Event ' || x, 'Description of event ' || x, 'Organizer ' || MOD(x, 50), "
+                + "DATEADD('DAY', MOD(x, 365), DATE '2022-06-01'), 'Street ' || x, NULL, 0, CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(1, ?)", meetups);
+        jdbc.update("INSERT INTO registration (registration_id, person_name, email, date_of_registration, registered, "
+                + "id_meetup, waitlist_position, version, last_modified) "
+                + "SELECT x, 'Person ' || x, 'person' || x || '@mail.com', DATE '2022-05-01', MOD(x, 2) = 0, "
+                + "MOD(x, ?) + 1, NULL, 0, CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(1, ?)", meetups, registrations);
+        // contadores iguais aos que o app manteria inscricao a inscricao, somados na faixa 0
+        jdbc.update("INSERT INTO meetup_counter (meetup_id, slot, registered_count, confirmed_count) "
+                + "SELECT m.id, s.x, "
+                + "CASE WHEN s.x = 0 THEN (SELECT COUNT(*) FROM registration r WHERE r.id_meetup = m.id) ELSE 0 END, "
+                + "CASE WHEN s.x = 0 THEN (SELECT COUNT(*) FROM registration r WHERE r.id_meetup = m.id AND r.registered) ELSE 0 END "
+                + "FROM meetup m, SYSTEM_RANGE(0, ?) s", MeetupCounters.SLOTS - 1);
+
+        // o otimizador pooled usa o valor da sequence como teto do bloco de 50 ids
+        jdbc.execute("ALTER SEQUENCE meetup_seq RESTART WITH " + (meetups + 1000));
+        jdbc.execute("ALTER SEQUENCE registration_seq RESTART WITH " + (registrations + 1000));
+
+        searchIndexLoader.load();
+    }
+}
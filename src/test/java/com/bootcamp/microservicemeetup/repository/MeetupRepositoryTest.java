@@ -1,5 +1,7 @@
 package com.bootcamp.microservicemeetup.repository;
 
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.model.VersionStamp;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import org.junit.jupiter.api.DisplayName;
@@ -8,9 +10,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -93,12 +102,98 @@ public class MeetupRepositoryTest {
 
     }
 
+    @Test
+    @DisplayName("Should seek the next meetups after the last seen id")
+    public void findAfterTest(){
+
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(createNewMeetup("Womakerscode Dados " + i));
+        }
+        entityManager.persist(createNewMeetup("Outro evento"));
+
+        Example<Meetup> example = Example.of(Meetup.builder().event("dados").build(),
+                ExampleMatcher.matching()
+                        .withIgnoreCase()
+                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+
+        List<Meetup> firstPage = repository.findAfter(example, null, 3);
+        List<Meetup> secondPage = repository.findAfter(example, firstPage.get(2).getId(), 3);
+
+        assertThat(firstPage).hasSize(3);
+        assertThat(secondPage).hasSize(2);
+        assertThat(secondPage.get(0).getId()).isGreaterThan(firstPage.get(2).getId());
+        assertThat(secondPage).extracting(Meetup::getEvent).allMatch(event -> event.contains("Dados"));
+    }
+
+    @Test
+    @DisplayName("Should read meetups straight into DTOs")
+    public void findDTOTest(){
+
+        Meetup meetup = createNewMeetup("Womakerscode Dados");
+        entityManager.persist(meetup);
+        entityManager.persist(createNewMeetup("Outro evento"));
+
+        Example<Meetup> example = Example.of(Meetup.builder().event("dados").build(),
+                ExampleMatcher.matching()
+                        .withIgnoreCase()
+                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+
+        Page<MeetupDTO> page = repository.findDTO(example, PageRequest.of(0, 10));
+        Optional<MeetupDTO> byId = repository.findDTOById(meetup.getId());
+
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(page.getContent().get(0).getEvent()).isEqualTo("Womakerscode Dados");
+        assertThat(byId.isPresent()).isTrue();
+        assertThat(byId.get().getOrganizer()).isEqualTo(meetup.getOrganizer());
+        assertThat(repository.findAllDTO()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should find meetups in a date range ordered by date")
+    public void findByMeetupDateBetweenTest(){
+
+        Meetup later = createNewMeetup("Womakerscode Java");
+        later.setMeetupDate(LocalDate.of(2021, 10, 15));
+        Meetup sooner = createNewMeetup("Womakerscode Dados");
+        sooner.setMeetupDate(LocalDate.of(2021, 10, 11));
+        Meetup outside = createNewMeetup("Outro evento");
+        outside.setMeetupDate(LocalDate.of(2021, 11, 1));
+        entityManager.persist(later);
+        entityManager.persist(sooner);
+        entityManager.persist(outside);
+
+        Slice<MeetupDTO> result = repository.findDTOByMeetupDateBetween(
+                LocalDate.of(2021, 10, 10), LocalDate.of(2021, 10, 17), PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).extracting(MeetupDTO::getMeetupDate).containsExactly("11/10/2021", "15/10/2021");
+        assertThat(result.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should read the meetup version and bump it on update")
+    public void findVersionByIdTest(){
+
+        Meetup meetup = createNewMeetup("Womakerscode Dados");
+        entityManager.persistAndFlush(meetup);
+
+        Optional<VersionStamp> created = repository.findVersionById(meetup.getId());
+
+        meetup.setEvent("Womakerscode Java");
+        entityManager.flush();
+        Optional<VersionStamp> updated = repository.findVersionById(meetup.getId());
+
+        assertThat(created.get().getTag()).isEqualTo("0");
+        assertThat(created.get().getLastModified()).isNotNull();
+        assertThat(updated.get().getTag()).isEqualTo("1");
+        assertThat(repository.findVersionById(999)).isEmpty();
+    }
+
     public Meetup createNewMeetup(String event) {
         return Meetup.builder()
                 .event(event)
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("10/10/2021")
+                .meetupDate(LocalDate.of(2021, 10, 10))
                 .address("sao paulo")
                 .build();
     }
@@ -0,0 +1,187 @@
+package com.bootcamp.microservicemeetup.repository;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.MeetupFilterDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the raw SQL of {@link ReactiveReadRepository} through R2DBC against the H2
+ * schema Hibernate generates, and checks the positional mapping against the JPA
+ * projections.
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+// banco com nome fixo: o R2DBC abre o mesmo H2 em memoria que o JPA criou
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:reactiveread;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// os dados sao gravados de verdade para a outra conexao enxergar
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReactiveReadRepositoryTest {
+
+    @Autowired
+    MeetupRepository meetupRepository;
+
+    @Autowired
+    RegistrationRepository registrationRepository;
+
+    @Autowired
+    MeetupCounterRepository meetupCounterRepository;
+
+    DatabaseClient databaseClient;
+
+    ReactiveReadRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse("r2dbc:h2:mem:///reactiveread")
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, "sa")
+                .option(ConnectionFactoryOptions.PASSWORD, "password")
+                .build());
+        databaseClient = DatabaseClient.create(connectionFactory);
+        repository = new ReactiveReadRepository(databaseClient);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        registrationRepository.deleteAllInBatch();
+        meetupCounterRepository.deleteAllInBatch();
+        meetupRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should read a meetup with the same fields as the JPA projection and the summed counters")
+    public void findMeetupByIdTest() {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup("Womakerscode Dados"));
+        insertCounter(meetup, 0, 2, 1);
+        insertCounter(meetup, 3, 1, 1);
+
+        MeetupDTO reactive = repository.findMeetupById(meetup.getId()).block();
+        MeetupDTO jpa = meetupRepository.findDTOById(meetup.getId()).get();
+
+        assertThat(reactive).usingRecursiveComparison()
+                .ignoringFields("version", "lastModified", "registeredCount", "confirmedCount")
+                .isEqualTo(jpa);
+        assertThat(reactive.getMeetupDate()).isEqualTo("10/10/2021");
+        assertThat(reactive.getCapacity()).isEqualTo(50);
+        assertThat(reactive.getRegisteredCount()).isEqualTo(3L);
+        assertThat(reactive.getConfirmedCount()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Should read zero counters for a meetup without counter rows and nothing for an unknown id")
+    public void findMeetupWithoutCountersTest() {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup("Womakerscode Dados"));
+
+        MeetupDTO reactive = repository.findMeetupById(meetup.getId()).block();
+
+        assertThat(reactive.getRegisteredCount()).isZero();
+        assertThat(reactive.getConfirmedCount()).isZero();
+        assertThat(repository.findMeetupById(meetup.getId() + 1000).blockOptional()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should filter meetups ignoring case and seek past the cursor")
+    public void findMeetupsAfterTest() {
+
+        Meetup first = meetupRepository.save(createNewMeetup("Womakerscode Dados"));
+        meetupRepository.save(createNewMeetup("Java Day"));
+        Meetup second = meetupRepository.save(createNewMeetup("Womakerscode Java"));
+        Meetup third = meetupRepository.save(createNewMeetup("WOMAKERSCODE Cloud"));
+
+        MeetupFilterDTO filter = MeetupFilterDTO.builder().event("makers").build();
+        List<MeetupDTO> firstPage = repository.findMeetupsAfter(filter, null, 2).collectList().block();
+        List<MeetupDTO> lastPage = repository.findMeetupsAfter(filter, second.getId(), 2).collectList().block();
+
+        assertThat(firstPage).extracting(MeetupDTO::getId).containsExactly(first.getId(), second.getId());
+        assertThat(lastPage).extracting(MeetupDTO::getId).containsExactly(third.getId());
+        assertThat(repository.findMeetupsAfter(MeetupFilterDTO.builder().organizer("ninguem").build(), null, 10)
+                .collectList().block()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should read the registrations of a meetup with their meetup, in id order after the cursor")
+    public void findRegistrationsByMeetupAfterTest() {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup("Womakerscode Dados"));
+        Meetup other = meetupRepository.save(createNewMeetup("Java Day"));
+        Registration first = registrationRepository.save(createNewRegistration("pessoa1@email.com", meetup, null));
+        registrationRepository.save(createNewRegistration("pessoa1@email.com", other, null));
+        Registration waiting = registrationRepository.save(createNewRegistration("pessoa2@email.com", meetup, 1L));
+
+        List<RegistrationDTO> all = repository.findRegistrationsByMeetupAfter(meetup.getId(), null, 10).collectList().block();
+        List<RegistrationDTO> afterFirst = repository.findRegistrationsByMeetupAfter(meetup.getId(), first.getId(), 10)
+                .collectList().block();
+
+        assertThat(all).extracting(RegistrationDTO::getId).containsExactly(first.getId(), waiting.getId());
+        RegistrationDTO registration = all.get(0);
+        assertThat(registration.getPersonName()).isEqualTo("Mariela Fernandez");
+        assertThat(registration.getEmail()).isEqualTo("pessoa1@email.com");
+        assertThat(registration.getDateOfRegistration()).isEqualTo("01/10/2021");
+        assertThat(registration.getRegistered()).isTrue();
+        assertThat(registration.getWaitlistPosition()).isNull();
+        assertThat(registration.getMeetup().getId()).isEqualTo(meetup.getId());
+        assertThat(registration.getMeetup().getEvent()).isEqualTo("Womakerscode Dados");
+        assertThat(registration.getMeetup().getMeetupDate()).isEqualTo("10/10/2021");
+        assertThat(afterFirst).extracting(RegistrationDTO::getWaitlistPosition).containsExactly(1L);
+    }
+
+    private void insertCounter(Meetup meetup, int slot, long registered, long confirmed) {
+        databaseClient.sql("INSERT INTO meetup_counter (meetup_id, slot, registered_count, confirmed_count)"
+                        + " VALUES (:meetupId, :slot, :registered, :confirmed)")
+                .bind("meetupId", meetup.getId())
+                .bind("slot", slot)
+                .bind("registered", registered)
+                .bind("confirmed", confirmed)
+                .fetch()
+                .rowsUpdated()
+                .block();
+    }
+
+    private static Registration createNewRegistration(String email, Meetup meetup, Long waitlistPosition) {
+        return Registration.builder()
+                .personName("Mariela Fernandez")
+                .email(email)
+                .dateOfRegistration(LocalDate.of(2021, 10, 1))
+                .registered(true)
+                .meetup(meetup)
+                .waitlistPosition(waitlistPosition)
+                .build();
+    }
+
+    private static Meetup createNewMeetup(String event) {
+        return Meetup.builder()
+                .event(event)
+                .description("descricao")
+                .organizer("organizadora")
+                .meetupDate(LocalDate.of(2021, 10, 10))
+                .address("sao paulo")
+                .capacity(50)
+                .build();
+    }
+}
@@ -4,22 +4,44 @@ import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
 import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 public class RegistrationRepositoryTest {
 
     @Autowired
@@ -28,6 +50,9 @@ public class RegistrationRepositoryTest {
     @Autowired
     RegistrationRepository repository;
 
+    @Autowired
+    MeetupRepository meetupRepository;
+
     @Test
     @DisplayName("Should return true when exists a registration was already created")
     public void returnTrueWhenRegistrationExists(){
@@ -109,12 +134,208 @@ public class RegistrationRepositoryTest {
 
     }
 
+    @Test
+    @DisplayName("Should reject a second registration with the same email on the same meetup")
+    public void uniqueEmailPerMeetupTest(){
+
+        Meetup meetup = createNewMeetup("Womakerscode Dados");
+        entityManager.persist(meetup);
+        repository.saveAndFlush(createNewRegistration("Mariela Fernandez", "email@gmail.com", meetup));
+
+        Throwable exception = catchThrowable(() ->
+                repository.saveAndFlush(createNewRegistration("Mariela Fernandez", "email@gmail.com", meetup)));
+
+        assertThat(exception).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should keep a single registration when the same sign-up arrives concurrently")
+    public void concurrentDuplicateSignUpTest() throws Exception {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup("Womakerscode Dados"));
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        repository.saveAndFlush(createNewRegistration("Mariela Fernandez", "email@gmail.com", meetup));
+                        created.incrementAndGet();
+                    } catch (DataAccessException e) {
+                        // duplicated: barrado pelo indice unico
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            assertThat(created.get()).isEqualTo(1);
+            assertThat(repository.findByMeetup(meetup, PageRequest.of(0, 10)).getTotalElements()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+            repository.deleteAll(repository.findByMeetup(meetup, PageRequest.of(0, threads)).getContent());
+            meetupRepository.delete(meetup);
+        }
+    }
+
+    @Test
+    @DisplayName("Should return a slice of registrations with one row of look-ahead")
+    public void findSliceTest(){
+
+        Meetup meetup = createNewMeetup("Womakerscode Dados");
+        entityManager.persist(meetup);
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(createNewRegistration("Mariela Fernandez", "email" + i + "@gmail.com", meetup));
+        }
+
+        Example<Registration> example = Example.of(Registration.builder().personName("mariela").build(),
+                ExampleMatcher.matching()
+                        .withIgnoreCase()
+                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+
+        Slice<Registration> firstSlice = repository.findSlice(example, PageRequest.of(0, 2, Sort.by("id")));
+        Slice<Registration> lastSlice = repository.findSlice(example, PageRequest.of(1, 2, Sort.by("id")));
+
+        assertThat(firstSlice.getContent()).hasSize(2);
+        assertThat(firstSlice.hasNext()).isTrue();
+        assertThat(lastSlice.getContent()).hasSize(1);
+        assertThat(lastSlice.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should match dateOfRegistration by the exact day, not as text")
+    public void findByDateOfRegistrationTest(){
+
+        Meetup meetup = createNewMeetup("Womakerscode Dados");
+        entityManager.persist(meetup);
+        entityManager.persist(createNewRegistration("Mariela Fernandez", "email0@gmail.com", meetup));
+        Registration otherDay = createNewRegistration("Mariela Fernandez", "email1@gmail.com", meetup);
+        otherDay.setDateOfRegistration(LocalDate.of(2021, 10, 1));
+        entityManager.persist(otherDay);
+
+        // mesmo matcher do servico: CONTAINING so vale para os campos de texto
+        Example<Registration> example = Example.of(Registration.builder().dateOfRegistration(LocalDate.of(2021, 10, 10)).build(),
+                ExampleMatcher.matching()
+                        .withIgnoreCase()
+                        .withIgnoreNullValues()
+                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+
+        Slice<Registration> result = repository.findSlice(example, PageRequest.of(0, 10, Sort.by("id")));
+
+        assertThat(result.getContent()).extracting(Registration::getEmail).containsExactly("email0@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Should list registrations and their meetups without N+1 selects")
+    public void findAllWithoutNPlusOneTest(){
+
+        Statistics statistics = persistRegistrationsOnManyMeetups();
+
+        repository.findAll().forEach(registration -> registration.getMeetup().getEvent());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should filter registrations and their meetups without N+1 selects")
+    public void findByExampleWithoutNPlusOneTest(){
+
+        Statistics statistics = persistRegistrationsOnManyMeetups();
+        Example<Registration> example = Example.of(Registration.builder().personName("mariela").build(),
+                ExampleMatcher.matching()
+                        .withIgnoreCase()
+                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+
+        repository.findAll(example, PageRequest.of(0, 20))
+                .forEach(registration -> registration.getMeetup().getEvent());
+        repository.findAfter(example, null, 20)
+                .forEach(registration -> registration.getMeetup().getEvent());
+        repository.findSlice(example, PageRequest.of(0, 20))
+                .forEach(registration -> registration.getMeetup().getEvent());
+
+        // page: select + count; keyset: select; slice: select
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should read registrations and their meetups straight into DTOs")
+    public void findDTOTest(){
+
+        Meetup meetup = createNewMeetup("Womakerscode Dados");
+        entityManager.persist(meetup);
+        Registration registration = createNewRegistration("Mariela Fernandez", "email@gmail.com", meetup);
+        entityManager.persist(registration);
+
+        Example<Registration> example = Example.of(Registration.builder().email("EMAIL").build(),
+                ExampleMatcher.matching()
+                        .withIgnoreCase()
+                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+
+        Page<RegistrationDTO> page = repository.findDTO(example, PageRequest.of(0, 10));
+        Optional<RegistrationDTO> byId = repository.findDTOById(registration.getId());
+
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getContent().get(0).getMeetup().getEvent()).isEqualTo("Womakerscode Dados");
+        assertThat(byId.isPresent()).isTrue();
+        assertThat(byId.get().getMeetup().getId()).isEqualTo(meetup.getId());
+        assertThat(repository.findAllDTO()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should stream only the registrations of the given meetup through the cursor")
+    public void streamByMeetupIdTest(){
+
+        Meetup meetup = createNewMeetup("Womakerscode Dados");
+        Meetup other = createNewMeetup("Womakerscode Java");
+        entityManager.persist(meetup);
+        entityManager.persist(other);
+        entityManager.persist(createNewRegistration("Mariela Fernandez", "email@gmail.com", meetup));
+        entityManager.persist(createNewRegistration("Juana Fernandez", "juana@gmail.com", meetup));
+        entityManager.persist(createNewRegistration("Ana Souza", "ana@gmail.com", other));
+        entityManager.flush();
+
+        List<RegistrationDTO> streamed = new ArrayList<>();
+        repository.streamByMeetupId(meetup.getId(), streamed::add);
+
+        assertThat(streamed).extracting(RegistrationDTO::getEmail)
+                .containsExactlyInAnyOrder("email@gmail.com", "juana@gmail.com");
+        assertThat(streamed.get(0).getDateOfRegistration()).isEqualTo("10/10/2021");
+        assertThat(streamed.get(0).getMeetup()).isNull();
+    }
+
+    private Statistics persistRegistrationsOnManyMeetups() {
+        for (int i = 0; i < 5; i++) {
+            Meetup meetup = createNewMeetup("Womakerscode Dados " + i);
+            entityManager.persist(meetup);
+            entityManager.persist(createNewRegistration("Mariela Fernandez", "email" + i + "@gmail.com", meetup));
+            entityManager.persist(createNewRegistration("Juana Fernandez", "juana" + i + "@gmail.com", meetup));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
     public Registration createNewRegistration(String personName, String email, Meetup meetup) {
 
         return Registration.builder()
                 .personName(personName)
                 .email(email)
-                .dateOfRegistration("10/10/2021")
+                .dateOfRegistration(LocalDate.of(2021, 10, 10))
                 .registered(true)
                 .meetup(meetup)
                 .build();
@@ -126,7 +347,7 @@ public class RegistrationRepositoryTest {
                 .event(event)
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("10/10/2021")
+                .meetupDate(LocalDate.of(2021, 10, 10))
                 .address("sao paulo")
                 .build();
     }
@@ -137,7 +358,7 @@ public class RegistrationRepositoryTest {
         return Registration.builder()
                 .personName("Mariela Fernandez")
                 .email("email@gmail.com")
-                .dateOfRegistration("10/10/2021")
+                .dateOfRegistration(LocalDate.of(2021, 10, 10))
                 .registered(true)
                 .meetup(meetup)
                 .build();
@@ -161,7 +382,7 @@ public class RegistrationRepositoryTest {
                 .event("Womakerscode Dados")
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("10/10/2021")
+                .meetupDate(LocalDate.of(2021, 10, 10))
                 .address("sao paulo")
                 .build();
     }
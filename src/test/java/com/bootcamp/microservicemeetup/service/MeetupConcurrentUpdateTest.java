@@ -0,0 +1,197 @@
+package com.bootcamp.microservicemeetup.service;
+
+import com.bootcamp.microservicemeetup.config.CacheConfig;
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.service.cache.MeetupCache;
+import com.bootcamp.microservicemeetup.service.counter.MeetupCounters;
+import com.bootcamp.microservicemeetup.service.impl.MeetupServiceImpl;
+import com.bootcamp.microservicemeetup.service.search.MeetupSearchIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+// o @DataJpaTest desliga o cache; aqui ele fica ligado como em producao, para as
+// threads disputarem o mesmo snapshot em cache
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@Import({CacheConfig.class, MeetupServiceImpl.class, MeetupSearchIndex.class, MeetupCache.class, MeetupCounters.class})
+public class MeetupConcurrentUpdateTest {
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    MeetupService meetupService;
+
+    @Autowired
+    MeetupRepository meetupRepository;
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should not lose updates when editors save the same meetup at once")
+    public void concurrentUpdatesTest() throws Exception {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup());
+        int initialCapacity = meetup.getCapacity();
+
+        int editors = 8;
+        // todos leem a mesma versao antes de qualquer um gravar: ler-ler-gravar-gravar
+        CyclicBarrier allRead = new CyclicBarrier(editors);
+        AtomicInteger saved = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(editors);
+        List<Future<?>> futures = new ArrayList<>();
+
+        int applied;
+        try {
+            for (int i = 0; i < editors; i++) {
+                futures.add(executor.submit(() -> {
+                    Meetup copy = meetupService.getMeetupById(meetup.getId()).get();
+                    allRead.await(5, TimeUnit.SECONDS);
+
+                    try {
+                        // como o If-Match do PUT: so grava sobre a versao que o editor leu
+                        meetupService.update(meetup.getId(), current -> {
+                            if (!current.getVersion().equals(copy.getVersion())) {
+                                throw new OptimisticLockingFailureException("meetup was modified");
+                            }
+                            current.setCapacity(copy.getCapacity() + 1);
+                        });
+                        saved.incrementAndGet();
+                    } catch (ConcurrencyFailureException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            applied = meetupRepository.findById(meetup.getId()).get().getCapacity() - initialCapacity;
+        } finally {
+            executor.shutdownNow();
+            meetupRepository.deleteById(meetup.getId());
+        }
+
+        // cada update confirmado tem que aparecer no banco; a diferenca sao updates perdidos
+        int lostUpdates = saved.get() - applied;
+
+        assertThat(lostUpdates).isZero();
+        assertThat(saved.get()).isEqualTo(1);
+        assertThat(conflicts.get()).isEqualTo(editors - 1);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should keep the fields of a single editor when PUTs on the same meetup race")
+    public void concurrentPutsTest() throws Exception {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup());
+        // o meetup ja esta em cache quando os PUTs chegam
+        meetupService.getMeetupById(meetup.getId());
+        meetupService.getMeetupDTOById(meetup.getId());
+        assertThat(cacheManager.getCache(CacheConfig.MEETUPS).get(meetup.getId())).isNotNull();
+
+        int editors = 8;
+        // cada editor le a linha na sua transacao e espera os outros antes de gravar
+        CyclicBarrier allRead = new CyclicBarrier(editors);
+        List<Integer> winners = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(editors);
+        List<Future<?>> futures = new ArrayList<>();
+
+        Meetup stored;
+        Meetup cached;
+        MeetupDTO cachedDTO;
+        try {
+            for (int i = 0; i < editors; i++) {
+                int editor = i;
+                futures.add(executor.submit(() -> {
+                    try {
+                        meetupService.update(meetup.getId(), current -> {
+                            await(allRead);
+                            current.setEvent("Evento " + editor);
+                            current.setDescription("descricao " + editor);
+                            current.setCapacity(100 + editor);
+                        });
+                        winners.add(editor);
+                    } catch (ConcurrencyFailureException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            stored = meetupRepository.findById(meetup.getId()).get();
+            cached = meetupService.getMeetupById(meetup.getId()).get();
+            cachedDTO = meetupService.getMeetupDTOById(meetup.getId()).get();
+        } finally {
+            executor.shutdownNow();
+            meetupRepository.deleteById(meetup.getId());
+        }
+
+        assertThat(winners).hasSize(1);
+        assertThat(conflicts.get()).isEqualTo(editors - 1);
+        // todos os campos vem do mesmo editor: nada de mistura entre as requisicoes
+        int winner = winners.get(0);
+        assertThat(stored.getEvent()).isEqualTo("Evento " + winner);
+        assertThat(stored.getDescription()).isEqualTo("descricao " + winner);
+        assertThat(stored.getCapacity()).isEqualTo(100 + winner);
+        // e a leitura seguinte, pelo cache, ja ve o que foi gravado
+        assertThat(cached.getEvent()).isEqualTo(stored.getEvent());
+        assertThat(cached.getVersion()).isEqualTo(stored.getVersion());
+        // o GET tira o ETag da versao do DTO: corpo e versao sao da mesma leitura
+        assertThat(cachedDTO.getEvent()).isEqualTo(stored.getEvent());
+        assertThat(cachedDTO.getVersion()).isEqualTo(stored.getVersion());
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Meetup createNewMeetup() {
+        return Meetup.builder()
+                .event("Womakerscode Dados")
+                .description("descricao")
+                .organizer("organizadora")
+                .meetupDate(LocalDate.of(2021, 10, 10))
+                .address("sao paulo")
+                .capacity(10)
+                .build();
+    }
+}
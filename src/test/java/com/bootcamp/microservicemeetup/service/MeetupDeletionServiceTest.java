@@ -0,0 +1,118 @@
+package com.bootcamp.microservicemeetup.service;
+
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.MeetupCounter;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupCounterRepository;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.service.impl.MeetupDeletionServiceImpl;
+import com.bootcamp.microservicemeetup.service.search.MeetupSearchIndex;
+import com.bootcamp.microservicemeetup.service.search.RegistrationSearchIndex;
+import com.bootcamp.microservicemeetup.service.seat.SeatCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import({MeetupDeletionServiceImpl.class, MeetupSearchIndex.class, RegistrationSearchIndex.class, SeatCounter.class})
+// cada lote roda na sua propria transacao, como em producao
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class MeetupDeletionServiceTest {
+
+    @Autowired
+    MeetupDeletionService meetupDeletionService;
+
+    @Autowired
+    MeetupRepository meetupRepository;
+
+    @Autowired
+    RegistrationRepository registrationRepository;
+
+    @Autowired
+    MeetupCounterRepository meetupCounterRepository;
+
+    @Autowired
+    RegistrationSearchIndex registrationSearchIndex;
+
+    @Autowired
+    SeatCounter seatCounter;
+
+    @AfterEach
+    public void tearDown() {
+        registrationRepository.deleteAllInBatch();
+        meetupCounterRepository.deleteAllInBatch();
+        meetupRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should delete a meetup and its registrations in chunks, keeping other meetups")
+    public void deleteWithRegistrationsTest() {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup("Womakerscode Dados"));
+        Meetup other = meetupRepository.save(createNewMeetup("Womakerscode Java"));
+        // mais de dois lotes, o ultimo incompleto
+        int registrations = 2500;
+        registrationRepository.saveAll(createRegistrations(meetup, registrations)).forEach(registrationSearchIndex::put);
+        registrationRepository.saveAll(createRegistrations(other, 3)).forEach(registrationSearchIndex::put);
+        meetupCounterRepository.save(new MeetupCounter(meetup.getId(), 0, registrations, 0));
+        meetupCounterRepository.save(new MeetupCounter(other.getId(), 0, 3, 0));
+        assertThat(seatCounter.taken(meetup.getId())).isEqualTo(registrations);
+
+        boolean deleted = meetupDeletionService.deleteWithRegistrations(meetup.getId());
+
+        assertThat(deleted).isTrue();
+        assertThat(meetupRepository.existsById(meetup.getId())).isFalse();
+        assertThat(registrationRepository.countByMeetupId(meetup.getId())).isZero();
+        assertThat(registrationRepository.countByMeetupId(other.getId())).isEqualTo(3);
+        assertThat(registrationSearchIndex.size()).isEqualTo(3);
+        assertThat(seatCounter.taken(meetup.getId())).isZero();
+        assertThat(meetupCounterRepository.findAll()).extracting(MeetupCounter::getMeetupId).containsExactly(other.getId());
+    }
+
+    @Test
+    @DisplayName("Should return false when deleting a meetup that doesn't exist")
+    public void deleteNonExistentMeetupTest() {
+
+        assertThat(meetupDeletionService.deleteWithRegistrations(404)).isFalse();
+    }
+
+    private static List<Registration> createRegistrations(Meetup meetup, int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> Registration.builder()
+                        .personName("Pessoa " + i)
+                        .email("pessoa" + i + "@email.com")
+                        .dateOfRegistration(LocalDate.of(2021, 10, 1))
+                        .registered(false)
+                        .meetup(meetup)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static Meetup createNewMeetup(String event) {
+        return Meetup.builder()
+                .event(event)
+                .description("descricao")
+                .organizer("organizadora")
+                .meetupDate(LocalDate.of(2021, 10, 10))
+                .address("sao paulo")
+                .build();
+    }
+}
@@ -2,8 +2,12 @@ package com.bootcamp.microservicemeetup.service;
 
 import com.bootcamp.microservicemeetup.exception.BusinessException;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.repository.MeetupCounterRepository;
 import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.service.cache.MeetupCache;
+import com.bootcamp.microservicemeetup.service.counter.MeetupCounters;
 import com.bootcamp.microservicemeetup.service.impl.MeetupServiceImpl;
+import com.bootcamp.microservicemeetup.service.search.MeetupSearchIndex;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,16 +18,19 @@ import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
-import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
@@ -34,11 +41,14 @@ public class MeetupServiceTest {
     @MockBean
     MeetupRepository meetupRepository;
 
+    MeetupSearchIndex searchIndex;
 
     @BeforeEach
     public void setUp() {
 
-        this.meetupService = new MeetupServiceImpl(meetupRepository);
+        this.searchIndex = new MeetupSearchIndex();
+        this.meetupService = new MeetupServiceImpl(meetupRepository, searchIndex, new MeetupCache(meetupRepository),
+                new MeetupCounters(Mockito.mock(MeetupCounterRepository.class)), Mockito.mock(PlatformTransactionManager.class));
     }
 
     @Test
@@ -49,7 +59,7 @@ public class MeetupServiceTest {
                 .event("Womakerscode Dados")
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("10/10/2021")
+                .meetupDate(LocalDate.of(2021, 10, 10))
                 .address("sao paulo")
                 .build();
 
@@ -59,7 +69,7 @@ public class MeetupServiceTest {
                 .event("Womakerscode Dados")
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("10/10/2021")
+                .meetupDate(LocalDate.of(2021, 10, 10))
                 .address("sao paulo")
                 .build();
 
@@ -97,36 +107,31 @@ public class MeetupServiceTest {
     }
 
     @Test
-    @DisplayName("Should return empty when get an meetup by Id when doesn't exists.")
-    public void MeetupNotFoundByIdTest() {
+    @DisplayName("Should hand out a copy so a caller can't change the meetup seen by others")
+    public void getMeetupByIdReturnsCopyTest() {
         Integer meetupId = 11;
+        Meetup meetup = createValidMeetup();
+        meetup.setId(meetupId);
+        Mockito.when(meetupRepository.findById(meetupId)).thenReturn(Optional.of(meetup));
 
-        Mockito.when(meetupRepository.findById(meetupId)).thenReturn(Optional.empty());
-
-        Optional<Meetup> meetup = meetupService.getMeetupById(meetupId);
-
-        assertThat(meetup.isPresent()).isFalse();
+        Meetup first = meetupService.getMeetupById(meetupId).get();
+        first.setEvent("alterado pelo chamador");
 
+        assertThat(meetupService.getMeetupById(meetupId).get().getEvent()).isEqualTo("Womakerscode Dados");
+        assertThat(meetup.getEvent()).isEqualTo("Womakerscode Dados");
     }
 
     @Test
-    @DisplayName("Should delete an meetup")
-    public void deleteMeetupTest() {
-        Meetup meetup = Meetup.builder().id(11).build();
-
-        assertDoesNotThrow(() -> meetupService.delete(meetup));
+    @DisplayName("Should return empty when get an meetup by Id when doesn't exists.")
+    public void MeetupNotFoundByIdTest() {
+        Integer meetupId = 11;
 
-        Mockito.verify(meetupRepository, Mockito.times(1)).delete(meetup);
-    }
+        Mockito.when(meetupRepository.findById(meetupId)).thenReturn(Optional.empty());
 
-    @Test
-    @DisplayName("Should throw error when try to delete an meetup no existent")
-    public void deleteInvalidMeetupTest() {
-        Meetup meetup = new Meetup();
+        Optional<Meetup> meetup = meetupService.getMeetupById(meetupId);
 
-        assertThrows(IllegalArgumentException.class, () -> meetupService.delete(meetup) );
+        assertThat(meetup.isPresent()).isFalse();
 
-        Mockito.verify(meetupRepository, Mockito.never()).delete(meetup);
     }
 
     @Test
@@ -134,21 +139,21 @@ public class MeetupServiceTest {
     public void updateMeetupTest() {
 
         Integer meetupId = 11;
-        Meetup updatingMeetup = Meetup.builder().id(meetupId).build();
-
-        Meetup updatedMeetup = createValidMeetup();
-        updatedMeetup.setId(meetupId);
+        Meetup currentMeetup = createValidMeetup();
+        currentMeetup.setId(meetupId);
 
-        Mockito.when(meetupRepository.save(updatingMeetup)).thenReturn(updatedMeetup);
+        Mockito.when(meetupRepository.findById(meetupId)).thenReturn(Optional.of(currentMeetup));
+        Mockito.when(meetupRepository.saveAndFlush(currentMeetup)).thenReturn(currentMeetup);
 
-        Meetup meetup =  meetupService.update(updatingMeetup);
+        Meetup meetup = meetupService.update(meetupId, current -> current.setEvent("Womakerscode Java")).get();
 
         assertThat(meetup.getId()).isEqualTo(meetupId);
-        assertThat(meetup.getEvent()).isEqualTo(meetup.getEvent());
-        assertThat(meetup.getDescription()).isEqualTo(meetup.getDescription());
-        assertThat(meetup.getOrganizer()).isEqualTo(meetup.getOrganizer());
-        assertThat(meetup.getMeetupDate()).isEqualTo(meetup.getMeetupDate());
-        assertThat(meetup.getAddress()).isEqualTo(meetup.getAddress());
+        assertThat(meetup.getEvent()).isEqualTo("Womakerscode Java");
+        assertThat(meetup.getDescription()).isEqualTo(currentMeetup.getDescription());
+        assertThat(meetup.getOrganizer()).isEqualTo(currentMeetup.getOrganizer());
+        assertThat(meetup.getMeetupDate()).isEqualTo(currentMeetup.getMeetupDate());
+        assertThat(meetup.getAddress()).isEqualTo(currentMeetup.getAddress());
+        Mockito.verify(meetupRepository).saveAndFlush(currentMeetup);
 
     }
 
@@ -178,14 +183,54 @@ public class MeetupServiceTest {
         assertThat(result.getPageable().getPageNumber()).isEqualTo(0);
         assertThat(result.getPageable().getPageSize()).isEqualTo(10);
     }
-    
+
+    @Test
+    @DisplayName("Should fetch one extra meetup to know if there is a next slice")
+    public void findMeetupAfterIdTest() {
+
+        Meetup first = createValidMeetup();
+        Meetup second = createValidMeetup();
+        second.setId(102);
+
+        Mockito.when(meetupRepository.findAfter(Mockito.any(Example.class), Mockito.eq(100), Mockito.eq(2)))
+                .thenReturn(Arrays.asList(first, second));
+
+        Slice<Meetup> result = meetupService.findAfter(createValidMeetup(), 100, 1);
+
+        assertThat(result.getContent()).containsExactly(first);
+        assertThat(result.hasNext()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should restrict the search to the ids found by the search index")
+    public void findMeetupByIndexedIdsTest() {
+
+        Meetup meetup = createValidMeetup();
+        Meetup other = createValidMeetup();
+        other.setId(102);
+        other.setEvent("Java Day");
+        searchIndex.put(meetup);
+        searchIndex.put(other);
+        searchIndex.markReady();
+
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Page<Meetup> page = new PageImpl<>(Arrays.asList(meetup), pageRequest, 1);
+        Mockito.when(meetupRepository.findPage(Mockito.any(Example.class), Mockito.eq(Collections.singleton(101)), Mockito.eq(pageRequest)))
+                .thenReturn(page);
+
+        Page<Meetup> result = meetupService.find(Meetup.builder().event("makers").build(), pageRequest);
+
+        assertThat(result.getContent()).containsExactly(meetup);
+        Mockito.verify(meetupRepository, Mockito.never()).findAll(Mockito.any(Example.class), Mockito.any(PageRequest.class));
+    }
+
     private Meetup createValidMeetup() {
         return Meetup.builder()
                 .id(101)
                 .event("Womakerscode Dados")
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("10/10/2021")
+                .meetupDate(LocalDate.of(2021, 10, 10))
                 .address("sao paulo")
                 .build();
     }
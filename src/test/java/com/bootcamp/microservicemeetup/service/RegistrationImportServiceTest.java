@@ -0,0 +1,169 @@
+package com.bootcamp.microservicemeetup.service;
+
+import com.bootcamp.microservicemeetup.controller.dto.BulkImportResultDTO;
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupCounterRepository;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.service.counter.MeetupCounters;
+import com.bootcamp.microservicemeetup.service.impl.RegistrationImportServiceImpl;
+import com.bootcamp.microservicemeetup.service.search.RegistrationSearchIndex;
+import com.bootcamp.microservicemeetup.service.seat.SeatCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({RegistrationImportServiceImpl.class, RegistrationSearchIndex.class, SeatCounter.class, MeetupCounters.class})
+// cada lote roda na sua propria transacao, como em producao
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RegistrationImportServiceTest {
+
+    @Autowired
+    RegistrationImportService registrationImportService;
+
+    @Autowired
+    MeetupRepository meetupRepository;
+
+    @Autowired
+    MeetupCounterRepository meetupCounterRepository;
+
+    @SpyBean
+    RegistrationRepository registrationRepository;
+
+    @Autowired
+    SeatCounter seatCounter;
+
+    @AfterEach
+    public void tearDown() {
+        registrationRepository.deleteAllInBatch();
+        meetupCounterRepository.deleteAllInBatch();
+        meetupRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should keep the committed chunks and report where a malformed row stopped the import")
+    public void malformedRowTest() throws Exception {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup());
+        // mais de um lote antes da linha quebrada
+        int valid = 1500;
+        ObjectMapper mapper = new ObjectMapper();
+        StringBuilder ndjson = new StringBuilder();
+        for (RegistrationDTO row : createRows(meetup, 1, valid)) {
+            ndjson.append(mapper.writeValueAsString(row)).append('\n');
+        }
+        ndjson.append("{\"personName\": }\n");
+        for (RegistrationDTO row : createRows(meetup, valid + 1, valid + 10)) {
+            ndjson.append(mapper.writeValueAsString(row)).append('\n');
+        }
+
+        BulkImportResultDTO result = registrationImportService.importAll(
+                mapper.readerFor(RegistrationDTO.class).readValues(ndjson.toString()));
+
+        assertThat(result.getReceived()).isEqualTo(valid);
+        assertThat(result.getCreated()).isEqualTo(valid);
+        assertThat(result.getFailedAtRow()).isEqualTo(valid + 1L);
+        assertThat(result.getParseError()).isNotBlank();
+        // nada depois da linha quebrada e gravado
+        assertThat(registrationRepository.countByMeetupId(meetup.getId())).isEqualTo(valid);
+    }
+
+    @Test
+    @DisplayName("Should skip a registration inserted by someone else between the check and the insert")
+    public void duplicateOnFirstAttemptTest() {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup());
+        registrationRepository.save(createRegistration(meetup, "pessoa1@email.com"));
+        // a primeira checagem nao ve a inscricao, como se ela tivesse sido gravada logo depois
+        List<Object[]> existing = Collections.singletonList(new Object[]{"pessoa1@email.com", meetup.getId()});
+        Mockito.doReturn(Collections.emptyList()).doReturn(existing)
+                .when(registrationRepository).findEmailAndMeetupIdByEmailIn(Mockito.anyCollection());
+
+        BulkImportResultDTO result = registrationImportService.importAll(createRows(meetup, 1, 3).iterator());
+
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getAlreadyRegistered()).isEqualTo(1);
+        assertThat(result.getRejected()).isZero();
+        assertThat(registrationRepository.countByMeetupId(meetup.getId())).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should count a chunk refused again on the retry as rejected, releasing its seats")
+    public void duplicateOnRetryTest() {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup());
+        registrationRepository.save(createRegistration(meetup, "pessoa1@email.com"));
+        // nenhuma das checagens ve a inscricao: as duas tentativas violam o indice unico
+        Mockito.doReturn(Collections.emptyList())
+                .when(registrationRepository).findEmailAndMeetupIdByEmailIn(Mockito.anyCollection());
+
+        BulkImportResultDTO result = registrationImportService.importAll(createRows(meetup, 1, 3).iterator());
+
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getCreated()).isZero();
+        assertThat(result.getRejected()).isEqualTo(3);
+        assertThat(result.getFailedAtRow()).isNull();
+        assertThat(registrationRepository.countByMeetupId(meetup.getId())).isEqualTo(1);
+        assertThat(seatCounter.taken(meetup.getId())).isEqualTo(1);
+    }
+
+    private static List<RegistrationDTO> createRows(Meetup meetup, int from, int to) {
+        return IntStream.rangeClosed(from, to)
+                .mapToObj(i -> RegistrationDTO.builder()
+                        .personName("Pessoa " + i)
+                        .email("pessoa" + i + "@email.com")
+                        .dateOfRegistration("01/10/2021")
+                        .registered(false)
+                        .meetup(MeetupDTO.builder().id(meetup.getId()).build())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static Registration createRegistration(Meetup meetup, String email) {
+        return Registration.builder()
+                .personName("Pessoa")
+                .email(email)
+                .dateOfRegistration(LocalDate.of(2021, 10, 1))
+                .registered(false)
+                .meetup(meetup)
+                .build();
+    }
+
+    private static Meetup createNewMeetup() {
+        return Meetup.builder()
+                .event("Womakerscode Dados")
+                .description("descricao")
+                .organizer("organizadora")
+                .meetupDate(LocalDate.of(2021, 10, 10))
+                .address("sao paulo")
+                .build();
+    }
+}
@@ -5,9 +5,16 @@ import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
 import com.bootcamp.microservicemeetup.exception.BusinessException;
 import com.bootcamp.microservicemeetup.model.entity.Meetup;
 import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
 import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.service.counter.MeetupCounters;
 import com.bootcamp.microservicemeetup.service.impl.RegistrationServiceImpl;
+import com.bootcamp.microservicemeetup.service.search.RegistrationSearchIndex;
+import com.bootcamp.microservicemeetup.service.seat.SeatCounter;
+import com.bootcamp.microservicemeetup.service.seat.Waitlist;
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -21,6 +28,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -37,10 +46,17 @@ public class RegistrationServiceTest {
     @MockBean
     RegistrationRepository repository;
 
+    @MockBean
+    MeetupRepository meetupRepository;
+
+    @MockBean
+    MeetupCounters meetupCounters;
+
     @BeforeEach
     public void setUp() {
         // dependencia do service e dar um new na mesma
-        this.registrationService = new RegistrationServiceImpl(repository);
+        this.registrationService = new RegistrationServiceImpl(repository, new RegistrationSearchIndex(),
+                new SeatCounter(repository), new Waitlist(repository, meetupRepository), meetupCounters);
     }
 
     @Test
@@ -52,17 +68,18 @@ public class RegistrationServiceTest {
         Registration registration= createValidRegistration();
 
         // execucao
-        Mockito.when(repository.existsByEmailAndMeetup(Mockito.anyString(), Mockito.any())).thenReturn(false);
-        Mockito.when(repository.save(registration)).thenReturn(createValidRegistration());
+        Mockito.when(repository.saveAndFlush(registration)).thenReturn(createValidRegistration());
 
         Registration savedRegistration = registrationService.save(registration);
         // assert
         assertThat(savedRegistration.getId()).isEqualTo(101);
         assertThat(savedRegistration.getPersonName()).isEqualTo("Mariela Fernandez");
         assertThat(savedRegistration.getEmail()).isEqualTo("email@gmail.com");
-        assertThat(savedRegistration.getDateOfRegistration()).isEqualTo("01/04/2022");
+        assertThat(savedRegistration.getDateOfRegistration()).isEqualTo(LocalDate.of(2022, 4, 1));
         assertThat(savedRegistration.getRegistered()).isEqualTo(true);
         assertThat(savedRegistration.getMeetup()).isEqualTo(meetup);
+        // inscricao com check-in conta nos dois contadores do meetup
+        Mockito.verify(meetupCounters).add(meetup.getId(), 1, 1);
 
     }
 
@@ -71,15 +88,95 @@ public class RegistrationServiceTest {
     public void shouldNotSaveAsRegistrationDuplicated() {
 
         Registration registration = createValidRegistration();
-        Mockito.when(repository.existsByEmailAndMeetup(Mockito.anyString(), Mockito.any())).thenReturn(true);
+        Mockito.when(repository.saveAndFlush(registration)).thenThrow(new DataIntegrityViolationException("duplicated",
+                new ConstraintViolationException("duplicated", new SQLException(), "PUBLIC.UK_REGISTRATION_EMAIL_MEETUP_INDEX_C")));
 
         Throwable exception = Assertions.catchThrowable(() -> registrationService.save(registration));
         assertThat(exception)
                 .isInstanceOf(BusinessException.class)
                 .hasMessage("Registration already created");
 
-        // It means that the method save(registration) must not be called
-        Mockito.verify(repository, Mockito.never()).save(registration);
+        // the unique index does the check, so there is no select before the insert
+        Mockito.verify(repository, Mockito.never()).existsByEmailAndMeetup(Mockito.anyString(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Should not hide integrity errors that are not a duplicated registration")
+    public void shouldRethrowOtherIntegrityErrors() {
+
+        Registration registration = createValidRegistration();
+        DataIntegrityViolationException integrityError = new DataIntegrityViolationException("not null",
+                new ConstraintViolationException("not null", new SQLException(), null));
+        Mockito.when(repository.saveAndFlush(registration)).thenThrow(integrityError);
+
+        Throwable exception = Assertions.catchThrowable(() -> registrationService.save(registration));
+        assertThat(exception).isSameAs(integrityError);
+    }
+
+    @Test
+    @DisplayName("Should put the registration at the end of the waitlist when the meetup is full")
+    public void shouldWaitlistWhenMeetupIsFull() {
+
+        Registration registration = createValidRegistration();
+        registration.getMeetup().setCapacity(10);
+        Mockito.when(repository.countByMeetupId(registration.getMeetup().getId())).thenReturn(10L);
+        Mockito.when(repository.findMaxWaitlistPosition(registration.getMeetup().getId())).thenReturn(4L);
+        Mockito.when(repository.saveAndFlush(registration)).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Registration saved = registrationService.save(registration);
+
+        assertThat(saved.getWaitlistPosition()).isEqualTo(5L);
+        Mockito.verify(repository, Mockito.never()).findWaitlistHead(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Should promote the head of the waitlist when a seated registration is deleted")
+    public void shouldPromoteWaitlistHeadOnDelete() {
+
+        Registration cancelled = createValidRegistration();
+        Registration head = createValidRegistration();
+        head.setId(102);
+        head.setEmail("fila@gmail.com");
+        head.setWaitlistPosition(1L);
+        Integer meetupId = cancelled.getMeetup().getId();
+        Mockito.when(repository.findMaxWaitlistPosition(meetupId)).thenReturn(3L);
+        Mockito.when(repository.findWaitlistHead(Mockito.eq(meetupId), Mockito.any())).thenReturn(Arrays.asList(head));
+        Mockito.when(repository.save(head)).thenReturn(head);
+
+        registrationService.delete(cancelled);
+
+        assertThat(head.getWaitlistPosition()).isNull();
+        Mockito.verify(meetupRepository).lockById(meetupId);
+        Mockito.verify(repository).delete(cancelled);
+    }
+
+    @Test
+    @DisplayName("Should not promote anyone when a waitlisted registration is deleted")
+    public void shouldNotPromoteWhenWaitlistedIsDeleted() {
+
+        Registration waiting = createValidRegistration();
+        waiting.setWaitlistPosition(2L);
+
+        registrationService.delete(waiting);
+
+        Mockito.verify(repository).delete(waiting);
+        Mockito.verify(meetupRepository, Mockito.never()).lockById(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Should give the seat back when the insert fails")
+    public void shouldReleaseSeatWhenSaveFails() {
+
+        Registration registration = createValidRegistration();
+        registration.getMeetup().setCapacity(1);
+        Mockito.when(repository.saveAndFlush(registration))
+                .thenThrow(new DataIntegrityViolationException("not null"))
+                .thenReturn(createValidRegistration());
+
+        Assertions.catchThrowable(() -> registrationService.save(registration));
+        Registration saved = registrationService.save(registration);
+
+        assertThat(saved.getId()).isEqualTo(101);
     }
 
     @Test
@@ -228,7 +325,7 @@ public class RegistrationServiceTest {
                 .id(101)
                 .personName("Mariela Fernandez")
                 .email("email@gmail.com")
-                .dateOfRegistration("01/04/2022")
+                .dateOfRegistration(LocalDate.of(2022, 4, 1))
                 .registered(true)
                 .meetup(meetup)
                 .build();
@@ -253,7 +350,7 @@ public class RegistrationServiceTest {
                 .event("Womakerscode Dados")
                 .description("descricao")
                 .organizer("organizadora")
-                .meetupDate("10/10/2021")
+                .meetupDate(LocalDate.of(2021, 10, 10))
                 .address("sao paulo")
                 .build();
     }
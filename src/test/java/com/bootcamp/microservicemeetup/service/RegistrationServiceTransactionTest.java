@@ -0,0 +1,168 @@
+package com.bootcamp.microservicemeetup.service;
+
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupCounterRepository;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.service.counter.MeetupCounters;
+import com.bootcamp.microservicemeetup.service.impl.RegistrationServiceImpl;
+import com.bootcamp.microservicemeetup.service.search.RegistrationSearchIndex;
+import com.bootcamp.microservicemeetup.service.seat.SeatCounter;
+import com.bootcamp.microservicemeetup.service.seat.Waitlist;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link RegistrationServiceImpl} against H2 with real commits and rollbacks, for the
+ * in-memory state (search index, seat counter) that has to follow the transaction outcome.
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import({RegistrationServiceImpl.class, RegistrationSearchIndex.class, SeatCounter.class, Waitlist.class,
+        MeetupCounters.class})
+// cada chamada do servico abre e fecha a propria transacao, como em producao
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RegistrationServiceTransactionTest {
+
+    @Autowired
+    RegistrationService registrationService;
+
+    @Autowired
+    RegistrationSearchIndex searchIndex;
+
+    @Autowired
+    RegistrationRepository registrationRepository;
+
+    @Autowired
+    MeetupRepository meetupRepository;
+
+    @Autowired
+    MeetupCounterRepository meetupCounterRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @SpyBean
+    Waitlist waitlist;
+
+    @SpyBean
+    SeatCounter seatCounter;
+
+    @BeforeEach
+    public void setUp() {
+        searchIndex.markReady();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        registrationRepository.deleteAllInBatch();
+        meetupCounterRepository.deleteAllInBatch();
+        meetupRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should keep a registration in the search index when its delete rolls back")
+    public void deleteRollbackKeepsIndexTest() {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup(1));
+        Registration seated = registrationService.save(createRegistration(meetup, "sentada@email.com"));
+        Registration waiting = registrationService.save(createRegistration(meetup, "espera@email.com"));
+        assertThat(waiting.getWaitlistPosition()).isNotNull();
+        // a promocao falha depois do delete ja ter passado pelo indice
+        Mockito.doThrow(new IllegalStateException("promocao falhou")).when(waitlist).promoteHead(meetup.getId());
+
+        assertThatThrownBy(() -> registrationService.delete(seated)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registrationRepository.findById(seated.getId())).isPresent();
+        assertThat(registrationService.find(Registration.builder().email("sentada").build(), PageRequest.of(0, 10)))
+                .extracting(Registration::getId)
+                .containsExactly(seated.getId());
+    }
+
+    @Test
+    @DisplayName("Should give the seat back when the enclosing transaction rolls back after the save")
+    public void enclosingRollbackReleasesSeatTest() {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup(5));
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            registrationService.save(createRegistration(meetup, "pessoa@email.com"));
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertThat(registrationRepository.countByMeetupId(meetup.getId())).isZero();
+        assertThat(seatCounter.taken(meetup.getId())).isZero();
+    }
+
+    @Test
+    @DisplayName("Should give the late seat back when the waitlist promotion fails after it was taken")
+    public void failedPromotionReleasesSeatTest() {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup(1));
+        assertThat(seatCounter.taken(meetup.getId())).isZero();
+        // a reserva falha e um cancelamento devolve a vaga antes do insert terminar
+        Mockito.doReturn(false).doCallRealMethod().when(seatCounter).tryReserve(meetup.getId(), 1);
+        Mockito.doThrow(new IllegalStateException("promocao falhou")).when(waitlist).promoteHead(meetup.getId());
+
+        assertThatThrownBy(() -> registrationService.save(createRegistration(meetup, "pessoa@email.com")))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(registrationRepository.findAll()).isEmpty();
+        assertThat(seatCounter.taken(meetup.getId())).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep the seat of a committed registration")
+    public void committedSaveKeepsSeatTest() {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup(5));
+
+        registrationService.save(createRegistration(meetup, "pessoa@email.com"));
+
+        assertThat(seatCounter.taken(meetup.getId())).isEqualTo(1);
+    }
+
+    private static Registration createRegistration(Meetup meetup, String email) {
+        return Registration.builder()
+                .personName("Pessoa")
+                .email(email)
+                .dateOfRegistration(LocalDate.of(2021, 10, 1))
+                .registered(false)
+                .meetup(meetup)
+                .build();
+    }
+
+    private static Meetup createNewMeetup(int capacity) {
+        return Meetup.builder()
+                .event("Womakerscode Dados")
+                .description("descricao")
+                .organizer("organizadora")
+                .meetupDate(LocalDate.of(2021, 10, 10))
+                .address("sao paulo")
+                .capacity(capacity)
+                .build();
+    }
+}
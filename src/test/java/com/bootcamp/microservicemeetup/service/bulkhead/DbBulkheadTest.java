@@ -0,0 +1,64 @@
+package com.bootcamp.microservicemeetup.service.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class DbBulkheadTest {
+
+    SimpleMeterRegistry registry;
+
+    DbBulkhead bulkhead;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        // uma thread e uma posicao na fila em cada pool
+        bulkhead = new DbBulkhead(1, 1, 1, 1, registry);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        bulkhead.stop();
+    }
+
+    @Test
+    @DisplayName("Should reject writes when the write pool is saturated and keep serving reads")
+    public void saturatedWritesDoNotBlockReadsTest() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = bulkhead.write(() -> await(release));
+        CompletableFuture<Boolean> queued = bulkhead.write(() -> await(release));
+
+        Throwable exception = catchThrowable(() -> bulkhead.write(() -> true));
+
+        assertThat(exception).isInstanceOf(RejectedExecutionException.class);
+        assertThat(bulkhead.read(() -> "meetup").get(1, TimeUnit.SECONDS)).isEqualTo("meetup");
+        assertThat(registry.get("db.executor.rejected").tag("name", DbBulkhead.WRITE).counter().count()).isEqualTo(1);
+        assertThat(registry.get("db.executor.queued").tag("name", DbBulkhead.WRITE).gauge().value()).isEqualTo(1);
+        assertThat(registry.get("db.executor.rejected").tag("name", DbBulkhead.READ).counter().count()).isZero();
+
+        release.countDown();
+        assertThat(running.get(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
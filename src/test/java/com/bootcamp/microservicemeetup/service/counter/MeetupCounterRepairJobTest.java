@@ -0,0 +1,171 @@
+package com.bootcamp.microservicemeetup.service.counter;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.MeetupCounter;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupCounterRepository;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import({MeetupCounters.class, MeetupCounterRepairJob.class})
+// lotes de 2 meetups: o reparo precisa atravessar mais de um lote
+@TestPropertySource(properties = "meetup.counters.repair.batch-size=2")
+// cada lote roda na sua propria transacao, como em producao
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class MeetupCounterRepairJobTest {
+
+    @Autowired
+    MeetupCounterRepairJob repairJob;
+
+    @Autowired
+    MeetupCounters meetupCounters;
+
+    @Autowired
+    MeetupRepository meetupRepository;
+
+    @Autowired
+    MeetupCounterRepository meetupCounterRepository;
+
+    @Autowired
+    RegistrationRepository registrationRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void tearDown() {
+        registrationRepository.deleteAllInBatch();
+        meetupCounterRepository.deleteAllInBatch();
+        meetupRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should count inserted registrations per meetup without touching the meetup row")
+    public void addInsertedTest() {
+
+        Meetup dados = createMeetup("Womakerscode Dados");
+        Meetup java = createMeetup("Womakerscode Java");
+        List<Registration> registrations = new ArrayList<>(registrationRepository.saveAll(createRegistrations(dados, 3)));
+        registrations.addAll(registrationRepository.saveAll(createRegistrations(java, 2)));
+
+        inTransaction(() -> meetupCounters.addInserted(registrations));
+
+        assertCounters(dados, 3, 1);
+        assertCounters(java, 2, 1);
+        // a versao do meetup nao muda: o ETag e o If-Match continuam valendo
+        assertThat(meetupRepository.findById(dados.getId()).orElseThrow().getVersion()).isEqualTo(dados.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should spread the deltas of one meetup over its counter slots")
+    public void addSpreadsOverSlotsTest() {
+
+        Meetup meetup = createMeetup("Womakerscode Dados");
+
+        for (int i = 0; i < 100; i++) {
+            inTransaction(() -> meetupCounters.add(meetup.getId(), 1, 0));
+        }
+
+        List<MeetupCounter> slots = meetupCounterRepository.findAll();
+        assertThat(slots).hasSize(MeetupCounters.SLOTS);
+        assertThat(slots.stream().filter(slot -> slot.getRegisteredCount() > 0).count()).isGreaterThan(1);
+        assertCounters(meetup, 100, 0);
+    }
+
+    @Test
+    @DisplayName("Should repair drifted counters and leave the correct ones alone")
+    public void repairTest() {
+
+        Meetup drifted = createMeetup("Womakerscode Dados");
+        Meetup correct = createMeetup("Womakerscode Java");
+        Meetup empty = createMeetup("Womakerscode Python");
+        Meetup overcounted = createMeetup("Womakerscode Mobile");
+        // meetup gravado sem as linhas de contador
+        Meetup missing = meetupRepository.save(createNewMeetup("Womakerscode Cloud"));
+        registrationRepository.saveAll(createRegistrations(drifted, 4));
+        registrationRepository.saveAll(createRegistrations(missing, 2));
+        List<Registration> counted = registrationRepository.saveAll(createRegistrations(correct, 3));
+        inTransaction(() -> meetupCounters.addInserted(counted));
+        // contadores sem nenhuma inscricao por tras
+        inTransaction(() -> meetupCounters.add(overcounted.getId(), 5, 2));
+
+        int repaired = repairJob.repair();
+
+        assertThat(repaired).isEqualTo(3);
+        assertCounters(drifted, 4, 2);
+        assertCounters(correct, 3, 1);
+        assertCounters(empty, 0, 0);
+        assertCounters(overcounted, 0, 0);
+        assertCounters(missing, 2, 1);
+        assertThat(meetupRepository.findById(drifted.getId()).orElseThrow().getVersion()).isEqualTo(drifted.getVersion());
+        assertThat(repairJob.repair()).isZero();
+    }
+
+    private Meetup createMeetup(String event) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Meetup meetup = meetupRepository.save(createNewMeetup(event));
+            meetupCounters.create(meetup.getId());
+            return meetup;
+        });
+    }
+
+    // os deltas sao updates em lote e precisam da transacao de quem grava a inscricao
+    private void inTransaction(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> action.run());
+    }
+
+    private void assertCounters(Meetup meetup, long registered, long confirmed) {
+        MeetupDTO counted = meetupCounters.fill(MeetupDTO.builder().id(meetup.getId()).build());
+        assertThat(counted.getRegisteredCount()).as("registeredCount of %s", meetup.getEvent()).isEqualTo(registered);
+        assertThat(counted.getConfirmedCount()).as("confirmedCount of %s", meetup.getEvent()).isEqualTo(confirmed);
+    }
+
+    // metade com check-in (registered = true)
+    private static List<Registration> createRegistrations(Meetup meetup, int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> Registration.builder()
+                        .personName("Pessoa " + i)
+                        .email("pessoa" + i + "." + meetup.getId() + "@email.com")
+                        .dateOfRegistration(LocalDate.of(2021, 10, 1))
+                        .registered(i % 2 == 0)
+                        .meetup(meetup)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static Meetup createNewMeetup(String event) {
+        return Meetup.builder()
+                .event(event)
+                .description("descricao")
+                .organizer("organizadora")
+                .meetupDate(LocalDate.of(2021, 10, 10))
+                .address("sao paulo")
+                .build();
+    }
+}
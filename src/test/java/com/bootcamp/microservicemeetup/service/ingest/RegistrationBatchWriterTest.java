@@ -0,0 +1,193 @@
+package com.bootcamp.microservicemeetup.service.ingest;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationTicketDTO;
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupCounterRepository;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import com.bootcamp.microservicemeetup.service.MeetupService;
+import com.bootcamp.microservicemeetup.service.cache.MeetupCache;
+import com.bootcamp.microservicemeetup.service.counter.MeetupCounters;
+import com.bootcamp.microservicemeetup.service.impl.MeetupServiceImpl;
+import com.bootcamp.microservicemeetup.service.impl.RegistrationServiceImpl;
+import com.bootcamp.microservicemeetup.service.search.MeetupSearchIndex;
+import com.bootcamp.microservicemeetup.service.search.RegistrationSearchIndex;
+import com.bootcamp.microservicemeetup.service.seat.SeatCounter;
+import com.bootcamp.microservicemeetup.service.seat.Waitlist;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import({RegistrationBatchWriter.class, RegistrationServiceImpl.class, MeetupServiceImpl.class, MeetupSearchIndex.class,
+        MeetupCache.class, MeetupCounters.class, RegistrationSearchIndex.class, SeatCounter.class, Waitlist.class})
+// o lote e o fallback abrem as proprias transacoes, como em producao
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RegistrationBatchWriterTest {
+
+    @Autowired
+    RegistrationBatchWriter writer;
+
+    @Autowired
+    MeetupService meetupService;
+
+    @Autowired
+    MeetupRepository meetupRepository;
+
+    @Autowired
+    MeetupCounterRepository meetupCounterRepository;
+
+    @SpyBean
+    RegistrationRepository registrationRepository;
+
+    @Autowired
+    SeatCounter seatCounter;
+
+    @AfterEach
+    public void tearDown() {
+        registrationRepository.deleteAllInBatch();
+        meetupCounterRepository.deleteAllInBatch();
+        meetupRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should write the whole batch with one saveAll, sending the overflow to the waitlist")
+    public void batchPathTest() {
+
+        Meetup meetup = meetupService.save(createNewMeetup(2));
+
+        List<RegistrationTicketDTO> results = writer.write(List.of(
+                createRequest("t1", "pessoa1@email.com", meetup),
+                createRequest("t2", "pessoa2@email.com", meetup),
+                createRequest("t3", "pessoa3@email.com", meetup)));
+
+        assertThat(results).extracting(RegistrationTicketDTO::getTicket).containsExactly("t1", "t2", "t3");
+        assertThat(results).extracting(RegistrationTicketDTO::getStatus).containsOnly(RegistrationTicketDTO.DONE);
+        assertThat(results).extracting(RegistrationTicketDTO::getRegistrationId).doesNotContainNull();
+        assertThat(results.get(0).getWaitlistPosition()).isNull();
+        assertThat(results.get(2).getWaitlistPosition()).isNotNull();
+        Mockito.verify(registrationRepository, Mockito.times(1)).saveAll(Mockito.anyList());
+        Mockito.verify(registrationRepository, Mockito.never()).saveAndFlush(Mockito.any());
+        assertThat(registeredCount(meetup)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should refuse duplicates already stored or repeated in the batch without leaving the batch path")
+    public void duplicatesInBatchTest() {
+
+        Meetup meetup = meetupService.save(createNewMeetup(10));
+        registrationRepository.save(createRegistration(meetup, "pessoa1@email.com"));
+
+        List<RegistrationTicketDTO> results = writer.write(List.of(
+                createRequest("t1", "pessoa1@email.com", meetup),
+                createRequest("t2", "pessoa2@email.com", meetup),
+                createRequest("t3", "pessoa2@email.com", meetup)));
+
+        assertThat(results).extracting(RegistrationTicketDTO::getStatus)
+                .containsExactly(RegistrationTicketDTO.FAILED, RegistrationTicketDTO.DONE, RegistrationTicketDTO.FAILED);
+        assertThat(results.get(0).getMessage()).isEqualTo("Registration already created");
+        assertThat(registrationRepository.countByMeetupId(meetup.getId())).isEqualTo(2);
+        Mockito.verify(registrationRepository, Mockito.never()).saveAndFlush(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Should fall back to one save per registration when a duplicate races into the batch")
+    public void fallbackOnRacingDuplicateTest() {
+
+        Meetup meetup = meetupService.save(createNewMeetup(10));
+        registrationRepository.save(createRegistration(meetup, "pessoa1@email.com"));
+        // a checagem do lote nao ve a inscricao, como se ela tivesse sido gravada logo depois
+        Mockito.doReturn(Collections.emptyList())
+                .when(registrationRepository).findEmailAndMeetupIdByEmailIn(Mockito.anyCollection());
+
+        List<RegistrationTicketDTO> results = writer.write(List.of(
+                createRequest("t1", "pessoa1@email.com", meetup),
+                createRequest("t2", "pessoa2@email.com", meetup)));
+
+        assertThat(results).extracting(RegistrationTicketDTO::getStatus)
+                .containsExactly(RegistrationTicketDTO.FAILED, RegistrationTicketDTO.DONE);
+        assertThat(results.get(0).getMessage()).isEqualTo("Registration already created");
+        Mockito.verify(registrationRepository, Mockito.times(2)).saveAndFlush(Mockito.any());
+        assertThat(registrationRepository.countByMeetupId(meetup.getId())).isEqualTo(2);
+        assertThat(seatCounter.taken(meetup.getId())).isEqualTo(2);
+        // o lote desfeito nao deixa delta nos contadores: so a inscricao do fallback conta
+        assertThat(registeredCount(meetup)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fail only the ticket whose row breaks with an unexpected error")
+    public void fallbackOnUnexpectedErrorTest() {
+
+        Meetup meetup = meetupService.save(createNewMeetup(10));
+        RegistrationDTO tooLong = createRequest("t1", "pessoa1@email.com", meetup).getRegistration();
+        tooLong.setPersonName("a".repeat(300));
+
+        List<RegistrationTicketDTO> results = writer.write(List.of(
+                new IngestRequest("t1", tooLong),
+                createRequest("t2", "pessoa2@email.com", meetup)));
+
+        assertThat(results).extracting(RegistrationTicketDTO::getStatus)
+                .containsExactly(RegistrationTicketDTO.FAILED, RegistrationTicketDTO.DONE);
+        assertThat(results.get(0).getMessage()).isEqualTo("registration could not be saved");
+        assertThat(registrationRepository.countByMeetupId(meetup.getId())).isEqualTo(1);
+        assertThat(seatCounter.taken(meetup.getId())).isEqualTo(1);
+    }
+
+    private long registeredCount(Meetup meetup) {
+        return meetupCounterRepository.sumByMeetupIdIn(List.of(meetup.getId())).stream()
+                .mapToLong(row -> ((Number) row[1]).longValue())
+                .sum();
+    }
+
+    private static IngestRequest createRequest(String ticket, String email, Meetup meetup) {
+        return new IngestRequest(ticket, RegistrationDTO.builder()
+                .personName("Pessoa")
+                .email(email)
+                .dateOfRegistration("01/10/2021")
+                .registered(false)
+                .meetup(MeetupDTO.builder().id(meetup.getId()).build())
+                .build());
+    }
+
+    private static Registration createRegistration(Meetup meetup, String email) {
+        return Registration.builder()
+                .personName("Pessoa")
+                .email(email)
+                .dateOfRegistration(LocalDate.of(2021, 10, 1))
+                .registered(false)
+                .meetup(meetup)
+                .build();
+    }
+
+    private static Meetup createNewMeetup(int capacity) {
+        return Meetup.builder()
+                .event("Womakerscode Dados")
+                .description("descricao")
+                .organizer("organizadora")
+                .meetupDate(LocalDate.of(2021, 10, 10))
+                .address("sao paulo")
+                .capacity(capacity)
+                .build();
+    }
+}
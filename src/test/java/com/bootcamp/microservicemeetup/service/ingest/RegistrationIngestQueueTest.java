@@ -0,0 +1,83 @@
+package com.bootcamp.microservicemeetup.service.ingest;
+
+import com.bootcamp.microservicemeetup.controller.dto.MeetupDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationDTO;
+import com.bootcamp.microservicemeetup.controller.dto.RegistrationTicketDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class RegistrationIngestQueueTest {
+
+    @MockBean
+    RegistrationBatchWriter writer;
+
+    @Test
+    @DisplayName("Should refuse new registrations when the queue is full")
+    public void backpressureTest() {
+
+        RegistrationIngestQueue queue = new RegistrationIngestQueue(writer, 2, 10);
+
+        assertThat(queue.submit(createNewRegistration("a@gmail.com"))).isPresent();
+        assertThat(queue.submit(createNewRegistration("b@gmail.com"))).isPresent();
+        assertThat(queue.submit(createNewRegistration("c@gmail.com"))).isEmpty();
+        assertThat(queue.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should write queued registrations in micro-batches and publish each ticket result")
+    @SuppressWarnings("unchecked")
+    public void drainInBatchesTest() throws Exception {
+
+        RegistrationIngestQueue queue = new RegistrationIngestQueue(writer, 10, 2);
+        Mockito.when(writer.write(Mockito.anyList())).thenAnswer(invocation -> {
+            List<IngestRequest> batch = invocation.getArgument(0);
+            return batch.stream()
+                    .map(request -> RegistrationTicketDTO.builder()
+                            .ticket(request.getTicket())
+                            .status(RegistrationTicketDTO.DONE)
+                            .build())
+                    .collect(Collectors.toList());
+        });
+
+        String first = queue.submit(createNewRegistration("a@gmail.com")).get().getTicket();
+        queue.submit(createNewRegistration("b@gmail.com"));
+        String last = queue.submit(createNewRegistration("c@gmail.com")).get().getTicket();
+
+        queue.drain(1, TimeUnit.SECONDS);
+        assertThat(queue.status(first)).map(RegistrationTicketDTO::getStatus).contains(RegistrationTicketDTO.DONE);
+        assertThat(queue.status(last)).map(RegistrationTicketDTO::getStatus).contains(RegistrationTicketDTO.QUEUED);
+
+        queue.drain(1, TimeUnit.SECONDS);
+        assertThat(queue.status(last)).map(RegistrationTicketDTO::getStatus).contains(RegistrationTicketDTO.DONE);
+
+        ArgumentCaptor<List<IngestRequest>> batches = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(writer, Mockito.times(2)).write(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        assertThat(queue.status("desconhecido")).isEqualTo(Optional.empty());
+    }
+
+    private RegistrationDTO createNewRegistration(String email) {
+        return RegistrationDTO.builder()
+                .personName("Mariela Fernandez")
+                .email(email)
+                .dateOfRegistration("10/10/2021")
+                .registered(true)
+                .meetup(MeetupDTO.builder().id(11).build())
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.bootcamp.microservicemeetup.service.search;
+
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TrigramIndexTest {
+
+    MeetupSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new MeetupSearchIndex();
+        index.put(meetup(1, "Womakerscode Dados", "sao paulo"));
+        index.put(meetup(2, "Womakerscode Java", "rio de janeiro"));
+        index.put(meetup(3, "Java Day", "sao paulo"));
+        index.markReady();
+    }
+
+    @Test
+    @DisplayName("Should find ids containing every term ignoring case")
+    public void candidatesTest() {
+
+        Optional<Set<Integer>> result = index.candidates(Meetup.builder().event("MAKERS").address("paulo").build());
+
+        assertThat(result).hasValueSatisfying(ids -> assertThat(ids).containsExactly(1));
+    }
+
+    @Test
+    @DisplayName("Should not match rows that only share trigrams with the term")
+    public void candidatesVerifySubstringTest() {
+
+        // "dado, os dos" tem todos os trigramas de "dados" (dad, ado, dos), mas nao a palavra
+        index.put(meetup(4, "dado, os dos", "sao paulo"));
+
+        Optional<Set<Integer>> result = index.candidates(Meetup.builder().event("dados").build());
+
+        assertThat(result).hasValueSatisfying(ids -> assertThat(ids).containsExactly(1));
+    }
+
+    @Test
+    @DisplayName("Should not restrict the search for short terms or before being ready")
+    public void noCandidatesTest() {
+
+        assertThat(index.candidates(Meetup.builder().event("ja").build())).isEmpty();
+        assertThat(new MeetupSearchIndex().candidates(Meetup.builder().event("java").build())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reindex updated rows and drop removed ones")
+    public void updateAndRemoveTest() {
+
+        index.put(meetup(1, "Kotlin Night", "sao paulo"));
+        index.remove(3);
+
+        assertThat(index.candidates(Meetup.builder().event("womakers").build()))
+                .hasValueSatisfying(ids -> assertThat(ids).containsExactly(2));
+        assertThat(index.candidates(Meetup.builder().event("day").build()))
+                .hasValueSatisfying(ids -> assertThat(ids).isEmpty());
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private Meetup meetup(Integer id, String event, String address) {
+        return Meetup.builder()
+                .id(id)
+                .event(event)
+                .organizer("organizadora")
+                .address(address)
+                .build();
+    }
+}
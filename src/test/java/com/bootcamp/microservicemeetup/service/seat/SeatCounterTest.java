@@ -0,0 +1,114 @@
+package com.bootcamp.microservicemeetup.service.seat;
+
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class SeatCounterTest {
+
+    static final int CAPACITY = 10_000;
+    static final int ATTEMPTS = 50_000;
+
+    @MockBean
+    RegistrationRepository repository;
+
+    @Test
+    @DisplayName("Should start from the registrations already in the database")
+    public void startFromDatabaseCountTest() {
+
+        Mockito.when(repository.countByMeetupId(11)).thenReturn(2L);
+        SeatCounter counter = new SeatCounter(repository);
+
+        assertThat(counter.tryReserve(11, 3)).isTrue();
+        assertThat(counter.tryReserve(11, 3)).isFalse();
+
+        counter.release(11);
+        assertThat(counter.taken(11)).isEqualTo(2);
+        Mockito.verify(repository, Mockito.times(1)).countByMeetupId(11);
+    }
+
+    @Test
+    @DisplayName("Should never oversell a meetup, whatever the number of threads")
+    public void concurrentReservationsTest() throws Exception {
+
+        for (int threads = 1; threads <= 32; threads *= 2) {
+            SeatCounter counter = new SeatCounter(repository);
+            AtomicInteger granted = new AtomicInteger();
+
+            race(threads, () -> {
+                if (counter.tryReserve(11, CAPACITY)) {
+                    granted.incrementAndGet();
+                }
+            });
+
+            assertThat(granted.get()).isEqualTo(CAPACITY);
+            assertThat(counter.taken(11)).isEqualTo(CAPACITY);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the count exact with reservations and cancellations racing")
+    public void concurrentReserveAndReleaseTest() throws Exception {
+
+        SeatCounter counter = new SeatCounter(repository);
+        AtomicInteger granted = new AtomicInteger();
+        AtomicInteger released = new AtomicInteger();
+
+        race(16, () -> {
+            if (counter.tryReserve(11, CAPACITY)) {
+                granted.incrementAndGet();
+                if (granted.get() % 3 == 0) {
+                    counter.release(11);
+                    released.incrementAndGet();
+                }
+            }
+        });
+
+        assertThat(counter.taken(11)).isEqualTo(granted.get() - released.get());
+        assertThat(counter.taken(11)).isLessThanOrEqualTo(CAPACITY);
+    }
+
+    // dispara ATTEMPTS chamadas divididas entre as threads; a vazao fica no SeatCounterBenchmark
+    private void race(int threads, Runnable attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < ATTEMPTS / threads; j++) {
+                        attempt.run();
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.bootcamp.microservicemeetup.service.seat;
+
+import com.bootcamp.microservicemeetup.model.entity.Meetup;
+import com.bootcamp.microservicemeetup.model.entity.Registration;
+import com.bootcamp.microservicemeetup.repository.MeetupRepository;
+import com.bootcamp.microservicemeetup.repository.RegistrationRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import(Waitlist.class)
+public class WaitlistTest {
+
+    @Autowired
+    Waitlist waitlist;
+
+    @Autowired
+    RegistrationRepository repository;
+
+    @Autowired
+    MeetupRepository meetupRepository;
+
+    @Test
+    @DisplayName("Should promote the lowest position, ties broken by id")
+    public void promoteHeadTest() {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup());
+        Registration second = repository.save(createNewRegistration("segundo@gmail.com", meetup, 2L));
+        Registration first = repository.save(createNewRegistration("primeiro@gmail.com", meetup, 1L));
+        repository.save(createNewRegistration("empate@gmail.com", meetup, 2L));
+
+        Optional<Registration> promoted = waitlist.promoteHead(meetup.getId());
+
+        assertThat(promoted).hasValueSatisfying(registration -> assertThat(registration.getId()).isEqualTo(first.getId()));
+        assertThat(waitlist.nextPosition(meetup.getId())).isEqualTo(3L);
+        assertThat(repository.findWaitlistHead(meetup.getId(), PageRequest.ofSize(1)).get(0).getId()).isEqualTo(second.getId());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should promote one distinct registration per cancellation arriving at once")
+    public void concurrentPromotionsTest() throws Exception {
+
+        Meetup meetup = meetupRepository.save(createNewMeetup());
+        int waiting = 8;
+        for (int i = 0; i < waiting; i++) {
+            repository.save(createNewRegistration("fila" + i + "@gmail.com", meetup, waitlist.nextPosition(meetup.getId())));
+        }
+
+        int cancellations = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(cancellations);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<Registration>>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < cancellations; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return waitlist.promoteHead(meetup.getId());
+                }));
+            }
+            start.countDown();
+
+            List<Integer> promoted = new ArrayList<>();
+            for (Future<Optional<Registration>> future : futures) {
+                future.get(30, TimeUnit.SECONDS).ifPresent(registration -> promoted.add(registration.getId()));
+            }
+
+            assertThat(promoted).hasSize(cancellations).doesNotHaveDuplicates();
+            assertThat(repository.countByMeetupId(meetup.getId())).isEqualTo(cancellations);
+            assertThat(repository.findWaitlistHead(meetup.getId(), PageRequest.ofSize(waiting)))
+                    .extracting(Registration::getWaitlistPosition)
+                    .containsExactly(6L, 7L, 8L);
+        } finally {
+            executor.shutdownNow();
+            repository.deleteAll(repository.findByMeetup(meetup, PageRequest.ofSize(waiting)).getContent());
+            meetupRepository.delete(meetup);
+        }
+    }
+
+    private Meetup createNewMeetup() {
+        return Meetup.builder()
+                .event("Womakerscode Dados")
+                .description("descricao")
+                .organizer("organizadora")
+                .meetupDate(LocalDate.of(2021, 10, 10))
+                .address("sao paulo")
+                .capacity(0)
+                .build();
+    }
+
+    private Registration createNewRegistration(String email, Meetup meetup, Long position) {
+        return Registration.builder()
+                .personName("Mariela Fernandez")
+                .email(email)
+                .dateOfRegistration(LocalDate.of(2021, 10, 1))
+                .registered(true)
+                .meetup(meetup)
+                .waitlistPosition(position)
+                .build();
+    }
+}